@@ -42,11 +42,30 @@ abstract class AbstractListTimeRangeGroup implements TimeRangeGroup {
     return allTimeRanges.iterator();
   }
 
-  /** Adds all the ranges from timeRanges into allTimeRanges. */
-  protected void addAllTimeRanges(Iterable<TimeRange> timeRanges) {
-    timeRanges.forEach(
-        (range) -> {
-          addTimeRange(range);
-        });
+  /**
+   * Adds all the ranges from timeRanges into allTimeRanges. The new ranges are sorted once and
+   * merged with allTimeRanges in a single pass, which is O(n log n) instead of adding the ranges
+   * one at a time.
+   */
+  @Override
+  public void addAll(Iterable<TimeRange> timeRanges) {
+    replaceAllTimeRanges(
+        SortedTimeRanges.union(allTimeRanges, SortedTimeRanges.sortByStart(timeRanges)));
+  }
+
+  /**
+   * Deletes all the ranges in timeRanges from allTimeRanges. The ranges to delete are sorted once
+   * and removed from allTimeRanges in a single pass.
+   */
+  @Override
+  public void deleteAll(Iterable<TimeRange> timeRanges) {
+    replaceAllTimeRanges(
+        SortedTimeRanges.subtract(allTimeRanges, SortedTimeRanges.sortByStart(timeRanges)));
+  }
+
+  /** Replaces the content of allTimeRanges, keeping the type of list it uses. */
+  private void replaceAllTimeRanges(List<TimeRange> newTimeRanges) {
+    allTimeRanges.clear();
+    allTimeRanges.addAll(newTimeRanges);
   }
 }
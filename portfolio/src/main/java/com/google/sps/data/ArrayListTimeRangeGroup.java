@@ -2,6 +2,7 @@ package com.google.sps.data;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 /** Models an implementation of the TimeRangeGroup model using ArrayList. */
@@ -13,7 +14,7 @@ public class ArrayListTimeRangeGroup extends AbstractListTimeRangeGroup implemen
    */
   public ArrayListTimeRangeGroup(Iterable<TimeRange> timeRanges) {
     allTimeRanges = new ArrayList<TimeRange>();
-    addAllTimeRanges(timeRanges);
+    addAll(timeRanges);
   }
 
   /**
@@ -105,6 +106,7 @@ public class ArrayListTimeRangeGroup extends AbstractListTimeRangeGroup implemen
       } else if (middleRange.end().isBefore(timeRangeToCheck.end())) {
         start = middle + 1;
       } else {
+        start = middle;
         break;
       }
     }
@@ -112,6 +114,28 @@ public class ArrayListTimeRangeGroup extends AbstractListTimeRangeGroup implemen
     return allTimeRanges.get(start).contains(timeRangeToCheck);
   }
 
+  /**
+   * Returns an iterator for the time ranges that end after {@code from}. The ranges are disjoint,
+   * so their ends are sorted and the first of them is found with binary search. See {@link
+   * TimeRangeGroup#iteratorFrom}.
+   */
+  @Override
+  public Iterator<TimeRange> iteratorFrom(Instant from) {
+    int start = 0;
+    int end = allTimeRanges.size();
+
+    while (start < end) {
+      int middle = (start + end) / 2;
+      if (allTimeRanges.get(middle).end().isAfter(from)) {
+        end = middle;
+      } else {
+        start = middle + 1;
+      }
+    }
+
+    return new ClippedTimeRangeIterator(allTimeRanges.listIterator(start), from, Instant.MAX);
+  }
+
   /**
    * Delete a time range from the list. Because the list of all time ranges are always kept to be
    * pairwise disjoint, the potentially two new time ranges resulted from a deletion will not
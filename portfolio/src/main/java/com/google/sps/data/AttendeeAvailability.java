@@ -0,0 +1,170 @@
+package com.google.sps.data;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Finds the time when the attendees of a meeting are free, for example to suggest meeting slots to
+ * a group of 10 to 200 people.
+ *
+ * <p>The free time ranges of each attendee are found in parallel from their own events. Every free
+ * time range then becomes two endpoints: one that adds an attendee to the count of free attendees
+ * at its start and one that takes the attendee away at its end. The endpoints of all attendees are
+ * sorted once with a parallel sort, and a parallel prefix sum over them gives the number of free
+ * attendees after each endpoint. A single pass over the sums then reports where that number reaches
+ * the quorum. This takes O(N log N) work for N free time ranges in total, instead of intersecting
+ * the groups of the attendees one pair at a time.
+ */
+public final class AttendeeAvailability {
+
+  private AttendeeAvailability() {}
+
+  /**
+   * Returns the time ranges inside the possible scheduling hours when every attendee is free,
+   * sorted by start time. With no attendees, all of the possible scheduling hours are free.
+   *
+   * @param attendeesEvents: the events of each attendee, one collection per attendee.
+   */
+  public static List<TimeRange> findCommonFreeTimeRanges(
+      Collection<? extends Collection<CalendarEvent>> attendeesEvents,
+      Instant overallStartTime,
+      Instant overallEndTime) {
+    if (attendeesEvents == null) {
+      throw new IllegalArgumentException("Attendees' events cannot be null");
+    }
+    if (attendeesEvents.isEmpty()) {
+      return new CalendarEventsGroup(
+              new ArrayList<CalendarEvent>(), overallStartTime, overallEndTime)
+          .getFreeTimeRanges();
+    }
+    return findQuorumFreeTimeRanges(
+        attendeesEvents, overallStartTime, overallEndTime, attendeesEvents.size());
+  }
+
+  /**
+   * Returns the time ranges inside the possible scheduling hours when at least {@code
+   * minimumFreeAttendees} attendees are free, sorted by start time. Time ranges that touch are
+   * returned as one range. See {@link #quorumOf} to turn a share of the attendees, such as "at
+   * least 80% free", into a count.
+   *
+   * @param attendeesEvents: the events of each attendee, one collection per attendee.
+   * @param minimumFreeAttendees: the number of attendees that must be free, between one and the
+   *     number of attendees.
+   * @throws IllegalArgumentException if there are no attendees, since no quorum can be reached.
+   */
+  public static List<TimeRange> findQuorumFreeTimeRanges(
+      Collection<? extends Collection<CalendarEvent>> attendeesEvents,
+      Instant overallStartTime,
+      Instant overallEndTime,
+      int minimumFreeAttendees) {
+    if (attendeesEvents == null) {
+      throw new IllegalArgumentException("Attendees' events cannot be null");
+    }
+    if (attendeesEvents.isEmpty()) {
+      throw new IllegalArgumentException("A quorum of free attendees needs at least one attendee");
+    }
+    if (minimumFreeAttendees < 1 || minimumFreeAttendees > attendeesEvents.size()) {
+      throw new IllegalArgumentException(
+          "Quorum must be between one and the number of attendees, got " + minimumFreeAttendees);
+    }
+
+    List<List<TimeRange>> attendeesFreeTimeRanges = new ArrayList<List<TimeRange>>();
+    attendeesEvents
+        .parallelStream()
+        .map(
+            events ->
+                new CalendarEventsGroup(
+                        new ArrayList<CalendarEvent>(events), overallStartTime, overallEndTime)
+                    .getFreeTimeRanges())
+        .forEachOrdered(attendeesFreeTimeRanges::add);
+
+    long[] endpoints = toSortedEndpoints(attendeesFreeTimeRanges);
+
+    // The count of free attendees changes by one at each endpoint, so a prefix sum of
+    // the changes is the count of free attendees right after each endpoint.
+    int[] freeAttendeeCounts = new int[endpoints.length];
+    Arrays.parallelSetAll(freeAttendeeCounts, index -> isStart(endpoints[index]) ? 1 : -1);
+    Arrays.parallelPrefix(freeAttendeeCounts, Integer::sum);
+
+    List<TimeRange> quorumFreeTimeRanges = new ArrayList<TimeRange>();
+    // The start of the current time range that has a quorum, or null if there is none.
+    Instant quorumStart = null;
+    for (int index = 0; index < endpoints.length; index++) {
+      long epochSecond = epochSecondOf(endpoints[index]);
+      if (index + 1 < endpoints.length && epochSecondOf(endpoints[index + 1]) == epochSecond) {
+        // Only the count after the last endpoint at an instant holds until the next instant.
+        continue;
+      }
+      boolean hasQuorum = freeAttendeeCounts[index] >= minimumFreeAttendees;
+      if (hasQuorum && quorumStart == null) {
+        quorumStart = Instant.ofEpochSecond(epochSecond);
+      } else if (!hasQuorum && quorumStart != null) {
+        quorumFreeTimeRanges.add(
+            TimeRange.fromStartEnd(quorumStart, Instant.ofEpochSecond(epochSecond)));
+        quorumStart = null;
+      }
+    }
+    return quorumFreeTimeRanges;
+  }
+
+  /**
+   * Returns the smallest number of attendees that is at least {@code fraction} of {@code
+   * attendeeCount}, but never less than one. For example, 80% of 12 attendees is 10 attendees.
+   *
+   * <p>The product is worked out in decimal, because in binary floating point 0.07 * 100 comes out
+   * just above 7 and would round up to 8.
+   *
+   * @throws IllegalArgumentException if {@code attendeeCount} is less than one.
+   */
+  public static int quorumOf(double fraction, int attendeeCount) {
+    if (fraction < 0 || fraction > 1) {
+      throw new IllegalArgumentException("Fraction must be between 0 and 1, got " + fraction);
+    }
+    if (attendeeCount < 1) {
+      throw new IllegalArgumentException(
+          "A quorum needs at least one attendee, got " + attendeeCount);
+    }
+    int quorum =
+        BigDecimal.valueOf(fraction)
+            .multiply(BigDecimal.valueOf(attendeeCount))
+            .setScale(0, RoundingMode.CEILING)
+            .intValueExact();
+    return Math.max(1, quorum);
+  }
+
+  /**
+   * Encodes the start and end of every free time range as one long each and sorts them in parallel.
+   * The epoch second is kept in the high bits, so endpoints sort by time, and the lowest bit tells
+   * a start from an end.
+   */
+  private static long[] toSortedEndpoints(List<List<TimeRange>> attendeesFreeTimeRanges) {
+    int endpointCount = 0;
+    for (List<TimeRange> freeTimeRanges : attendeesFreeTimeRanges) {
+      endpointCount += 2 * freeTimeRanges.size();
+    }
+
+    long[] endpoints = new long[endpointCount];
+    int index = 0;
+    for (List<TimeRange> freeTimeRanges : attendeesFreeTimeRanges) {
+      for (TimeRange freeTimeRange : freeTimeRanges) {
+        endpoints[index++] = (freeTimeRange.startEpochSecond() << 1) | 1;
+        endpoints[index++] = freeTimeRange.endEpochSecond() << 1;
+      }
+    }
+    Arrays.parallelSort(endpoints);
+    return endpoints;
+  }
+
+  private static boolean isStart(long endpoint) {
+    return (endpoint & 1) == 1;
+  }
+
+  private static long epochSecondOf(long endpoint) {
+    return endpoint >> 1;
+  }
+}
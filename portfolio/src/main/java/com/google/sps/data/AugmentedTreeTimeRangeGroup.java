@@ -0,0 +1,124 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Models an implementation of the TimeRangeGroup model using a balanced binary search tree keyed on
+ * the start of each time range, where every node also stores the longest time range in its subtree.
+ * Adding and deleting a time range take logarithmic time, and so does finding the first place where
+ * a time range of a given duration fits, because whole subtrees without a long enough time range
+ * are skipped.
+ *
+ * <p>The tree is never modified in place, so {@link #snapshot} and {@link #restore} let a scheduler
+ * save the group and roll back to it in constant time.
+ */
+public class AugmentedTreeTimeRangeGroup implements TimeRangeGroup {
+  private TimeRangeTree.Node root;
+
+  /** Adds all the input time ranges to the tree of all time ranges. */
+  public AugmentedTreeTimeRangeGroup(Iterable<TimeRange> timeRanges) {
+    root = null;
+    addAll(timeRanges);
+  }
+
+  /**
+   * Adds a new time range to the tree. If the time range to add overlaps with any existing time
+   * range, the overlapping time ranges are removed from the tree and replaced by one merged range.
+   */
+  @Override
+  public void addTimeRange(TimeRange timeRange) {
+    root = TimeRangeTree.addTimeRange(root, timeRange);
+  }
+
+  /**
+   * Checks if a time range exists in the collection. For example, if [3:00 - 4:00] is in the
+   * collection, [3:00 - 3:30] is considered to exist as a time range in the collection. Only the
+   * range starting at or before the target range's start can contain it.
+   */
+  @Override
+  public boolean hasTimeRange(TimeRange timeRangeToCheck) {
+    return TimeRangeTree.hasTimeRange(root, timeRangeToCheck);
+  }
+
+  /**
+   * Delete a time range from the tree. The range starting at or before the range to delete may be
+   * split into two, and the ranges starting inside the range to delete are removed, except for the
+   * part of the last one that extends past the deleted range.
+   *
+   * <p>For example, if the tree contains [3:00 - 4:00] and [5:00 - 6:00], deleting [3:15 - 3:30]
+   * will result in [3 - 3:15] and [3:30 - 4] as new time ranges.
+   *
+   * <p>Another example for deleting overlapping time ranges: if [3 - 4] and [5 - 6] are in the
+   * original tree, deleting [3:30 - 5:30] will result in two new ranges: [3 - 3:30] and [5:30 - 6].
+   */
+  @Override
+  public void deleteTimeRange(TimeRange timeRangeToDelete) {
+    root = TimeRangeTree.deleteTimeRange(root, timeRangeToDelete);
+  }
+
+  /**
+   * Adds all the input time ranges. When the tree is empty, for example when the group is being
+   * constructed, the ranges are sorted and merged once and the tree is built from them in linear
+   * time. Otherwise each range is added in logarithmic time.
+   */
+  @Override
+  public void addAll(Iterable<TimeRange> timeRanges) {
+    if (root != null) {
+      TimeRangeGroup.super.addAll(timeRanges);
+      return;
+    }
+    root =
+        TimeRangeTree.buildFromSorted(
+            SortedTimeRanges.union(
+                Collections.emptyList(), SortedTimeRanges.sortByStart(timeRanges)));
+  }
+
+  /**
+   * Returns an immutable snapshot of the time ranges currently in the group, in constant time.
+   * Later changes to this group do not affect the snapshot, because the tree is never modified in
+   * place.
+   */
+  public PersistentTimeRangeGroup snapshot() {
+    return PersistentTimeRangeGroup.fromTree(root);
+  }
+
+  /**
+   * Replaces all the time ranges in the group with those of {@code snapshot}, in constant time.
+   * This rolls the group back to the point where the snapshot was taken.
+   */
+  public void restore(PersistentTimeRangeGroup snapshot) {
+    root = snapshot.getTree();
+  }
+
+  /**
+   * Finds the earliest place where {@code duration} fits, in logarithmic time. See {@link
+   * TimeRangeGroup#findFirstFit}.
+   */
+  @Override
+  public Optional<Instant> findFirstFit(Duration duration, Instant notBefore) {
+    return Optional.ofNullable(TimeRangeTree.findFirstFit(root, duration, notBefore));
+  }
+
+  /**
+   * Returns an iterator for the time ranges that end after {@code from}. The first of them is found
+   * in logarithmic time. See {@link TimeRangeGroup#iteratorFrom}.
+   */
+  @Override
+  public Iterator<TimeRange> iteratorFrom(Instant from) {
+    return new ClippedTimeRangeIterator(TimeRangeTree.iteratorFrom(root, from), from, Instant.MAX);
+  }
+
+  /**
+   * Returns an iterator for all time ranges, in ascending order of their start times. The iterator
+   * walks the tree as it was when the iterator was created, so the group can be changed while
+   * iterating.
+   */
+  @Override
+  public Iterator<TimeRange> iterator() {
+    return TimeRangeTree.iterator(root);
+  }
+}
@@ -0,0 +1,25 @@
+package com.google.sps.data;
+
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+
+/**
+ * This class models a scheduling algorithm that places each task in the shortest free time range it
+ * fits in. This packs tasks tightly into small gaps between events and keeps the large blocks of
+ * free time open for later.
+ */
+public class BestFitScheduler extends GapSizeScheduler {
+
+  /** Returns the earliest of the shortest free time ranges that are long enough for the task. */
+  @Override
+  Optional<TimeRange> chooseGap(
+      NavigableMap<Long, NavigableSet<TimeRange>> gapsBySize, long durationSeconds) {
+    return findShortestGapOfAtLeast(gapsBySize, durationSeconds);
+  }
+
+  /** Returns the scheduler's type, which is Best Fit. */
+  public SchedulingAlgorithmType getSchedulingAlgorithmType() {
+    return SchedulingAlgorithmType.BEST_FIT;
+  }
+}
@@ -0,0 +1,179 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Models an implementation of the TimeRangeGroup model as a bitmap over a fixed horizon. The
+ * horizon is cut into slots of equal duration, for example 1, 5 or 15 minutes, and slot i is set
+ * when [horizonStart + i * slot, horizonStart + (i + 1) * slot] is in the group. The bitmap is a
+ * BitSet, which stores the slots in a long[] and sets, clears and searches them a whole word at a
+ * time, so dense calendars with thousands of small ranges never merge TimeRange objects.
+ *
+ * <p>Only whole slots inside the horizon can be in the group. A time range that is added only sets
+ * the slots it covers completely, while a time range that is deleted clears every slot it touches.
+ * For free time, this means a partially free slot is never treated as free.
+ */
+public class BitmapTimeRangeGroup implements TimeRangeGroup {
+  private final Instant horizonStart;
+  private final long slotSeconds;
+  private final int slotCount;
+  private final BitSet slots;
+
+  /**
+   * Creates an empty bitmap for the horizon [horizonStart, horizonEnd].
+   *
+   * @param horizonStart: the start of the first slot.
+   * @param horizonEnd: the end of the horizon. If the horizon is not a whole number of slots, the
+   *     last slot extends past this time.
+   * @param slotDuration: the duration of each slot. It must be a positive number of seconds.
+   */
+  public BitmapTimeRangeGroup(Instant horizonStart, Instant horizonEnd, Duration slotDuration) {
+    if (horizonStart == null) {
+      throw new IllegalArgumentException("Horizon start cannot be null");
+    }
+    if (horizonEnd == null) {
+      throw new IllegalArgumentException("Horizon end cannot be null");
+    }
+    if (horizonStart.isAfter(horizonEnd)) {
+      throw new IllegalArgumentException("Horizon start cannot be after horizon end");
+    }
+    if (slotDuration == null || slotDuration.getSeconds() <= 0 || slotDuration.getNano() != 0) {
+      throw new IllegalArgumentException("Slot duration must be a positive number of seconds");
+    }
+
+    this.horizonStart = horizonStart;
+    this.slotSeconds = slotDuration.getSeconds();
+    long horizonSeconds = horizonEnd.getEpochSecond() - horizonStart.getEpochSecond();
+    this.slotCount = (int) ceilDiv(horizonSeconds, slotSeconds);
+    this.slots = new BitSet(slotCount);
+  }
+
+  /**
+   * Creates a bitmap for the horizon [horizonStart, horizonEnd] and adds all the input time ranges
+   * to it.
+   */
+  public BitmapTimeRangeGroup(
+      Instant horizonStart,
+      Instant horizonEnd,
+      Duration slotDuration,
+      Iterable<TimeRange> timeRanges) {
+    this(horizonStart, horizonEnd, slotDuration);
+    timeRanges.forEach(this::addTimeRange);
+  }
+
+  /**
+   * Adds a time range by setting every slot that lies completely inside it. Adjacent and
+   * overlapping time ranges are merged automatically, because they set neighbouring slots.
+   */
+  @Override
+  public void addTimeRange(TimeRange timeRange) {
+    int fromSlot = clampToHorizon(ceilDiv(secondsFromHorizonStart(timeRange.start()), slotSeconds));
+    int toSlot =
+        clampToHorizon(Math.floorDiv(secondsFromHorizonStart(timeRange.end()), slotSeconds));
+    if (fromSlot < toSlot) {
+      slots.set(fromSlot, toSlot);
+    }
+  }
+
+  /**
+   * Checks if a time range exists in the collection, which means that every slot it touches is set.
+   * A time range with no duration is treated like a point, which is in the collection if a set slot
+   * starts, contains or ends at it.
+   */
+  @Override
+  public boolean hasTimeRange(TimeRange timeRangeToCheck) {
+    long startSeconds = secondsFromHorizonStart(timeRangeToCheck.start());
+    long endSeconds = secondsFromHorizonStart(timeRangeToCheck.end());
+    long fromSlot = Math.floorDiv(startSeconds, slotSeconds);
+    long toSlot = ceilDiv(endSeconds, slotSeconds);
+
+    if (startSeconds >= endSeconds) {
+      boolean isOnSlotBoundary = startSeconds % slotSeconds == 0;
+      return isSlotSet(fromSlot) || (isOnSlotBoundary && isSlotSet(fromSlot - 1));
+    }
+    if (fromSlot < 0 || toSlot > slotCount) {
+      return false;
+    }
+    return slots.nextClearBit((int) fromSlot) >= toSlot;
+  }
+
+  /** Deletes a time range by clearing every slot that it touches. */
+  @Override
+  public void deleteTimeRange(TimeRange timeRangeToDelete) {
+    int fromSlot =
+        clampToHorizon(
+            Math.floorDiv(secondsFromHorizonStart(timeRangeToDelete.start()), slotSeconds));
+    int toSlot =
+        clampToHorizon(ceilDiv(secondsFromHorizonStart(timeRangeToDelete.end()), slotSeconds));
+    if (fromSlot < toSlot) {
+      slots.clear(fromSlot, toSlot);
+    }
+  }
+
+  /**
+   * Returns an iterator for all time ranges, in ascending order of their start times. Each time
+   * range is one run of consecutive set slots, found a word at a time.
+   */
+  @Override
+  public Iterator<TimeRange> iterator() {
+    return iteratorFromSlot(0);
+  }
+
+  /**
+   * Returns an iterator for the time ranges that end after {@code from}, starting the search at the
+   * slot that contains {@code from}. See {@link TimeRangeGroup#iteratorFrom}.
+   */
+  @Override
+  public Iterator<TimeRange> iteratorFrom(Instant from) {
+    // A run that starts before this slot is returned from this slot, and then cut to start at from.
+    int fromSlot = clampToHorizon(Math.floorDiv(secondsFromHorizonStart(from), slotSeconds));
+    return new ClippedTimeRangeIterator(iteratorFromSlot(fromSlot), from, Instant.MAX);
+  }
+
+  /** Returns an iterator for the runs of set slots that start at or after {@code fromSlot}. */
+  private Iterator<TimeRange> iteratorFromSlot(int fromSlot) {
+    return new Iterator<TimeRange>() {
+      private int nextRunStart = slots.nextSetBit(fromSlot);
+
+      @Override
+      public boolean hasNext() {
+        return nextRunStart >= 0;
+      }
+
+      @Override
+      public TimeRange next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        int runStart = nextRunStart;
+        int runEnd = slots.nextClearBit(runStart);
+        nextRunStart = slots.nextSetBit(runEnd);
+        return TimeRange.fromStartEnd(slotStart(runStart), slotStart(runEnd));
+      }
+    };
+  }
+
+  private boolean isSlotSet(long slot) {
+    return slot >= 0 && slot < slotCount && slots.get((int) slot);
+  }
+
+  private Instant slotStart(int slot) {
+    return horizonStart.plusSeconds(slot * slotSeconds);
+  }
+
+  private long secondsFromHorizonStart(Instant time) {
+    return time.getEpochSecond() - horizonStart.getEpochSecond();
+  }
+
+  private int clampToHorizon(long slot) {
+    return (int) Math.max(0, Math.min(slotCount, slot));
+  }
+
+  private static long ceilDiv(long dividend, long divisor) {
+    return -Math.floorDiv(-dividend, divisor);
+  }
+}
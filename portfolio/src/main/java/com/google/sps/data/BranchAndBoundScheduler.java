@@ -0,0 +1,307 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * This class models a scheduling algorithm that searches for the schedule with the highest
+ * priority-weighted completion: the sum of the priority times the duration of every scheduled task.
+ * Tasks are never split, and the order of the tasks inside a free time range does not change this
+ * sum, so the search only decides which free time range, if any, each task goes into.
+ *
+ * <p>The search is a depth-first branch and bound over the tasks, sorted from highest to lowest
+ * priority and then from longest to shortest. Each task is first tried in the shortest free time
+ * range it fits in, so the first schedule found is the greedy best-fit schedule. A branch is cut
+ * off when even filling all the free time left with the remaining tasks, split as needed, could not
+ * beat the best schedule found so far. The free time left in the ranges is kept in a sorted map
+ * from an amount of time to the number of ranges with that much time left, so moving down, undoing
+ * a step and finding the best-fit range each take O(log m) time, and ranges with the same time left
+ * are only tried once. The bound takes O(log n) time with running totals over the sorted tasks.
+ *
+ * <p>The search stops when its time budget runs out, and the best schedule found so far is
+ * returned.
+ */
+public class BranchAndBoundScheduler implements TaskScheduler {
+  private static final Duration DEFAULT_TIME_BUDGET = Duration.ofMillis(500);
+
+  // How many nodes are searched between two looks at the clock.
+  private static final int NODES_PER_CLOCK_CHECK = 1 << 12;
+
+  private static final Comparator<Task> sortByTaskPriorityThenDurationDescendingThenName =
+      Comparator.comparing(Task::getPriority)
+          .thenComparing(Comparator.comparing(Task::getDuration).reversed())
+          .thenComparing(Task::getName);
+
+  private static final Comparator<ScheduledTask> sortByScheduledStartTimeAscending =
+      Comparator.comparing(ScheduledTask::getStartTime);
+
+  private final Duration timeBudget;
+
+  /** Creates a scheduler that searches for at most half a second. */
+  public BranchAndBoundScheduler() {
+    this(DEFAULT_TIME_BUDGET);
+  }
+
+  /**
+   * Creates a scheduler that searches for at most {@code timeBudget}. The greedy best-fit schedule
+   * is always found, so even a budget of zero returns a schedule at least as good as it.
+   */
+  public BranchAndBoundScheduler(Duration timeBudget) {
+    if (timeBudget == null || timeBudget.isNegative()) {
+      throw new IllegalArgumentException("Time budget cannot be null or negative");
+    }
+    this.timeBudget = timeBudget;
+  }
+
+  /**
+   * Schedules the tasks to maximize the priority-weighted completion, within the time budget. The
+   * tasks placed in a free time range follow each other from its start.
+   */
+  public Collection<ScheduledTask> schedule(
+      Collection<CalendarEvent> events,
+      Collection<Task> tasks,
+      Instant workHoursStartTime,
+      Instant workHoursEndTime) {
+    long deadline = System.nanoTime() + timeBudget.toNanos();
+
+    List<CalendarEvent> eventsList = new ArrayList<CalendarEvent>(events);
+    List<Task> tasksList = new ArrayList<Task>(tasks);
+    Collections.sort(tasksList, sortByTaskPriorityThenDurationDescendingThenName);
+
+    CalendarEventsGroup calendarEventsGroup =
+        new CalendarEventsGroup(eventsList, workHoursStartTime, workHoursEndTime);
+    List<TimeRange> freeTimeRanges = new ArrayList<TimeRange>();
+    calendarEventsGroup.freeTimeRangesIterator().forEachRemaining(freeTimeRanges::add);
+
+    Search search = new Search(tasksList, freeTimeRanges, deadline);
+    search.run();
+
+    // Free time ranges with the same time left are interchangeable, so the search only records
+    // how much time was left in the range each task went into. Replaying the decisions in order
+    // picks one such range for each task.
+    NavigableMap<Long, Deque<Integer>> gapsByRemainingSeconds = new TreeMap<Long, Deque<Integer>>();
+    for (int gap = 0; gap < freeTimeRanges.size(); gap++) {
+      gapsByRemainingSeconds
+          .computeIfAbsent(
+              freeTimeRanges.get(gap).durationSeconds(),
+              remainingSeconds -> new ArrayDeque<Integer>())
+          .add(gap);
+    }
+    List<ScheduledTask> scheduledTasks = new ArrayList<ScheduledTask>();
+    for (int task = 0; task < tasksList.size(); task++) {
+      long remainingSeconds = search.bestChoices[task];
+      if (remainingSeconds == Search.SKIPPED) {
+        continue;
+      }
+      Deque<Integer> gaps = gapsByRemainingSeconds.get(remainingSeconds);
+      int gap = gaps.poll();
+      if (gaps.isEmpty()) {
+        gapsByRemainingSeconds.remove(remainingSeconds);
+      }
+      gapsByRemainingSeconds
+          .computeIfAbsent(
+              remainingSeconds - search.durations[task], seconds -> new ArrayDeque<Integer>())
+          .add(gap);
+      // The tasks in a free time range follow each other from its start.
+      scheduledTasks.add(
+          new ScheduledTask(
+              tasksList.get(task),
+              Instant.ofEpochSecond(freeTimeRanges.get(gap).endEpochSecond() - remainingSeconds),
+              Optional.of(SchedulingCompleteness.COMPLETELY_SCHEDULED)));
+    }
+
+    Collections.sort(scheduledTasks, sortByScheduledStartTimeAscending);
+    return scheduledTasks;
+  }
+
+  /** Returns the scheduler's type, which is Branch and Bound. */
+  public SchedulingAlgorithmType getSchedulingAlgorithmType() {
+    return SchedulingAlgorithmType.BRANCH_AND_BOUND;
+  }
+
+  /**
+   * Holds the state of one search, so that the scheduler itself can be shared between threads. The
+   * search walks the tree of decisions with a loop and one array of choices instead of recursion,
+   * so a backlog of any length fits on the stack.
+   */
+  private static final class Search {
+    // The choice of a task that has not been decided on the current path.
+    private static final long UNDECIDED = -1;
+    // The choice of a task that is left out of the schedule.
+    private static final long SKIPPED = -2;
+
+    // The duration and priority of each task, in the order the tasks are decided.
+    private final long[] durations;
+    private final int[] priorities;
+    // The total duration and value of the tasks before each task, for the upper bound.
+    private final long[] secondsBefore;
+    private final long[] valueBefore;
+
+    // The number of free time ranges with each amount of free time left. Ranges with the
+    // same time left lead to the same searches, so they are only tried once.
+    private final NavigableMap<Long, Integer> gapCountByRemainingSeconds =
+        new TreeMap<Long, Integer>();
+    private long totalRemainingSeconds;
+
+    // The choice for each task on the current path: the free time left in the range the task
+    // went into, before it went in, or one of UNDECIDED and SKIPPED.
+    private final long[] choices;
+    private long value;
+
+    // The best schedule found so far.
+    private final long[] bestChoices;
+    private long bestValue = -1;
+
+    private final long deadline;
+    private long nodeCount;
+    private boolean isOutOfTime;
+
+    private Search(List<Task> tasks, List<TimeRange> freeTimeRanges, long deadline) {
+      int taskCount = tasks.size();
+      this.durations = new long[taskCount];
+      this.priorities = new int[taskCount];
+      this.secondsBefore = new long[taskCount + 1];
+      this.valueBefore = new long[taskCount + 1];
+      for (int task = 0; task < taskCount; task++) {
+        durations[task] = tasks.get(task).getDuration().getSeconds();
+        priorities[task] = tasks.get(task).getPriority().getPriority();
+        secondsBefore[task + 1] = secondsBefore[task] + durations[task];
+        valueBefore[task + 1] = valueBefore[task] + durations[task] * priorities[task];
+      }
+      for (TimeRange freeTimeRange : freeTimeRanges) {
+        addGap(freeTimeRange.durationSeconds());
+        totalRemainingSeconds += freeTimeRange.durationSeconds();
+      }
+      this.choices = new long[taskCount];
+      Arrays.fill(choices, UNDECIDED);
+      this.bestChoices = new long[taskCount];
+      this.deadline = deadline;
+    }
+
+    /**
+     * Searches depth first. Each task is first placed in the free time range with the least time
+     * left that it fits in, then in the ranges with more time left in ascending order, and then
+     * left out. Coming back to a task undoes its last choice before making the next one.
+     */
+    private void run() {
+      int task = 0;
+      while (task >= 0) {
+        if (task == durations.length) {
+          if (value > bestValue) {
+            bestValue = value;
+            System.arraycopy(choices, 0, bestChoices, 0, choices.length);
+          }
+          task--;
+          continue;
+        }
+
+        long previousChoice = choices[task];
+        if (previousChoice == SKIPPED) {
+          // Every choice for this task has been searched.
+          choices[task] = UNDECIDED;
+          task--;
+          continue;
+        }
+        if (previousChoice == UNDECIDED) {
+          // Nothing is cut off until the first, greedy, schedule is found.
+          if (bestValue >= 0 && (isOutOfTimeNow() || value + upperBound(task) <= bestValue)) {
+            task--;
+            continue;
+          }
+        } else {
+          remove(task, previousChoice);
+        }
+
+        Long nextChoice = null;
+        if (!isOutOfTime) {
+          nextChoice =
+              previousChoice == UNDECIDED
+                  ? gapCountByRemainingSeconds.ceilingKey(durations[task])
+                  : gapCountByRemainingSeconds.higherKey(previousChoice);
+        }
+        if (nextChoice == null) {
+          choices[task] = SKIPPED;
+        } else {
+          place(task, nextChoice);
+        }
+        task++;
+      }
+    }
+
+    /** Places {@code task} in a free time range with {@code remainingSeconds} left. */
+    private void place(int task, long remainingSeconds) {
+      choices[task] = remainingSeconds;
+      removeGap(remainingSeconds);
+      addGap(remainingSeconds - durations[task]);
+      totalRemainingSeconds -= durations[task];
+      value += durations[task] * priorities[task];
+    }
+
+    /** Undoes placing {@code task} in a free time range with {@code remainingSeconds} left. */
+    private void remove(int task, long remainingSeconds) {
+      value -= durations[task] * priorities[task];
+      totalRemainingSeconds += durations[task];
+      removeGap(remainingSeconds - durations[task]);
+      addGap(remainingSeconds);
+    }
+
+    private void addGap(long remainingSeconds) {
+      gapCountByRemainingSeconds.merge(remainingSeconds, 1, Integer::sum);
+    }
+
+    private void removeGap(long remainingSeconds) {
+      int count = gapCountByRemainingSeconds.get(remainingSeconds);
+      if (count == 1) {
+        gapCountByRemainingSeconds.remove(remainingSeconds);
+      } else {
+        gapCountByRemainingSeconds.put(remainingSeconds, count - 1);
+      }
+    }
+
+    /**
+     * Returns an upper bound on the value the tasks from {@code task} on can still add: the free
+     * time left is filled with them from highest to lowest priority, and the last one may be split.
+     * The tasks that fit whole are found with a binary search over the running totals of their
+     * durations, so this takes O(log n) time.
+     */
+    private long upperBound(int task) {
+      long secondsLimit = secondsBefore[task] + totalRemainingSeconds;
+      // Find the last task, from this one on, whose running total still fits.
+      int low = task;
+      int high = durations.length;
+      while (low < high) {
+        int middle = (low + high + 1) >>> 1;
+        if (secondsBefore[middle] <= secondsLimit) {
+          low = middle;
+        } else {
+          high = middle - 1;
+        }
+      }
+      long bound = valueBefore[low] - valueBefore[task];
+      if (low < durations.length) {
+        bound += (secondsLimit - secondsBefore[low]) * priorities[low];
+      }
+      return bound;
+    }
+
+    private boolean isOutOfTimeNow() {
+      if (!isOutOfTime
+          && ++nodeCount % NODES_PER_CLOCK_CHECK == 0
+          && System.nanoTime() - deadline > 0) {
+        isOutOfTime = true;
+      }
+      return isOutOfTime;
+    }
+  }
+}
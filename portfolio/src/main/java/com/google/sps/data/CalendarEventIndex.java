@@ -0,0 +1,326 @@
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Models an index of calendar events that may overlap each other. The events are kept in a balanced
+ * (AVL) binary search tree sorted by start time, and each node also stores the latest end time of
+ * any event in its subtree. A query for the events that overlap a time window can then skip every
+ * subtree whose events all end before the window, and every subtree whose events all start after
+ * it. Every subtree that the query enters either holds a result or lies on the path to the end of
+ * the window, so it takes O(min(n, (k + 1) log n)) time for k results. This is not O(log n + k),
+ * because events that end before the window are still visited on the way to later results.
+ *
+ * <p>Like TimeRangeTree, nodes are never modified after they are created, and a change copies only
+ * the nodes on the path from the root to the changed node. The same event may be added more than
+ * once; its node then counts the copies.
+ */
+public class CalendarEventIndex {
+
+  // Comparator for sorting events by start time, then end time, then name. Two events
+  // are equal under this comparator exactly when CalendarEvent#equals says so.
+  private static final Comparator<CalendarEvent> sortByEventStartTimeAscending =
+      Comparator.comparing(CalendarEvent::getStartTime)
+          .thenComparing(CalendarEvent::getEndTime)
+          .thenComparing(CalendarEvent::getName);
+
+  /** Two events that overlap each other, with {@code first} sorted before {@code second}. */
+  public static final class Conflict {
+    private final CalendarEvent first;
+    private final CalendarEvent second;
+
+    private Conflict(CalendarEvent first, CalendarEvent second) {
+      this.first = first;
+      this.second = second;
+    }
+
+    public CalendarEvent getFirst() {
+      return first;
+    }
+
+    public CalendarEvent getSecond() {
+      return second;
+    }
+  }
+
+  /** A node of the tree. A null node represents the empty tree. */
+  private static final class Node {
+    final CalendarEvent event;
+    final int copies;
+    final Node left;
+    final Node right;
+    final int height;
+    // The number of events in this subtree, counting every copy.
+    final int size;
+    // The latest end time of any event in this subtree.
+    final Instant maxEndTime;
+
+    private Node(CalendarEvent event, int copies, Node left, Node right) {
+      this.event = event;
+      this.copies = copies;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = size(left) + copies + size(right);
+      this.maxEndTime = later(event.getEndTime(), later(maxEndTime(left), maxEndTime(right)));
+    }
+  }
+
+  private Node root;
+
+  /** Creates an index with all the input events. */
+  public CalendarEventIndex(Iterable<CalendarEvent> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("Events cannot be null");
+    }
+    for (CalendarEvent event : events) {
+      add(event);
+    }
+  }
+
+  /**
+   * Creates an index from events sorted by start time. Instead of adding the events one by one, the
+   * tree is built from the middle of the sorted events outwards, which takes linear time. Events
+   * that start at the same time are put in the order of the index first; TimSort only checks input
+   * that is already in order, so this stays linear unless such events come out of order.
+   */
+  static CalendarEventIndex fromSortedEvents(List<CalendarEvent> sortedEvents) {
+    List<CalendarEvent> events = new ArrayList<CalendarEvent>(sortedEvents);
+    events.sort(sortByEventStartTimeAscending);
+
+    // Copies of the same event share one node.
+    List<CalendarEvent> distinctEvents = new ArrayList<CalendarEvent>(events.size());
+    int[] copies = new int[events.size()];
+    for (CalendarEvent event : events) {
+      int lastIndex = distinctEvents.size() - 1;
+      if (lastIndex >= 0 && distinctEvents.get(lastIndex).equals(event)) {
+        copies[lastIndex]++;
+      } else {
+        distinctEvents.add(event);
+        copies[lastIndex + 1] = 1;
+      }
+    }
+
+    CalendarEventIndex index = new CalendarEventIndex(Collections.emptyList());
+    index.root = buildBalanced(distinctEvents, copies, 0, distinctEvents.size());
+    return index;
+  }
+
+  /** Adds an event to the index, in logarithmic time. */
+  public void add(CalendarEvent event) {
+    root = add(root, event);
+  }
+
+  /**
+   * Removes one copy of an event from the index, in logarithmic time. Returns false if the event is
+   * not in the index.
+   */
+  public boolean remove(CalendarEvent event) {
+    Node newRoot = remove(root, event);
+    if (newRoot == root) {
+      return false;
+    }
+    root = newRoot;
+    return true;
+  }
+
+  /** Returns the number of events in the index, counting every copy. */
+  public int size() {
+    return size(root);
+  }
+
+  /** Returns all the events in the index, sorted by start time. */
+  public List<CalendarEvent> getEvents() {
+    List<CalendarEvent> events = new ArrayList<CalendarEvent>(size());
+    collectAll(root, events);
+    return events;
+  }
+
+  /**
+   * Returns the events that overlap the time window [from, to], sorted by start time, in O(min(n,
+   * (k + 1) log n)) time for k results. Events that only touch the window at one instant are left
+   * out.
+   */
+  public List<CalendarEvent> findOverlapping(Instant from, Instant to) {
+    List<CalendarEvent> overlappingEvents = new ArrayList<CalendarEvent>();
+    collectOverlapping(root, from, to, overlappingEvents);
+    return overlappingEvents;
+  }
+
+  /**
+   * Returns every pair of events that overlap each other, in O(n log n + k) time for k pairs. The
+   * events are walked in order of their start times while a heap holds the events that have not
+   * ended yet; each event conflicts with exactly the events still in the heap when it starts.
+   */
+  public List<Conflict> findConflicts() {
+    List<Conflict> conflicts = new ArrayList<Conflict>();
+    PriorityQueue<CalendarEvent> activeEvents =
+        new PriorityQueue<CalendarEvent>(Comparator.comparing(CalendarEvent::getEndTime));
+    for (CalendarEvent event : getEvents()) {
+      while (!activeEvents.isEmpty()
+          && !activeEvents.peek().getEndTime().isAfter(event.getStartTime())) {
+        activeEvents.poll();
+      }
+      for (CalendarEvent activeEvent : activeEvents) {
+        conflicts.add(new Conflict(activeEvent, event));
+      }
+      activeEvents.add(event);
+    }
+    return conflicts;
+  }
+
+  private static Node add(Node node, CalendarEvent event) {
+    if (node == null) {
+      return new Node(event, 1, null, null);
+    }
+    int comparison = sortByEventStartTimeAscending.compare(event, node.event);
+    if (comparison < 0) {
+      return balance(node.event, node.copies, add(node.left, event), node.right);
+    }
+    if (comparison > 0) {
+      return balance(node.event, node.copies, node.left, add(node.right, event));
+    }
+    return new Node(node.event, node.copies + 1, node.left, node.right);
+  }
+
+  /** Returns a tree without one copy of {@code event}, or {@code node} itself if it has none. */
+  private static Node remove(Node node, CalendarEvent event) {
+    if (node == null) {
+      return null;
+    }
+    int comparison = sortByEventStartTimeAscending.compare(event, node.event);
+    if (comparison < 0) {
+      Node left = remove(node.left, event);
+      return left == node.left ? node : balance(node.event, node.copies, left, node.right);
+    }
+    if (comparison > 0) {
+      Node right = remove(node.right, event);
+      return right == node.right ? node : balance(node.event, node.copies, node.left, right);
+    }
+    if (node.copies > 1) {
+      return new Node(node.event, node.copies - 1, node.left, node.right);
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    Node successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(
+        successor.event, successor.copies, node.left, removeNode(node.right, successor.event));
+  }
+
+  /** Returns a tree without the node of {@code event}, whatever its number of copies. */
+  private static Node removeNode(Node node, CalendarEvent event) {
+    int comparison = sortByEventStartTimeAscending.compare(event, node.event);
+    if (comparison < 0) {
+      return balance(node.event, node.copies, removeNode(node.left, event), node.right);
+    }
+    if (comparison > 0) {
+      return balance(node.event, node.copies, node.left, removeNode(node.right, event));
+    }
+    // The successor of a node has no left child.
+    return node.right;
+  }
+
+  /**
+   * Returns a tree of the events in [from, to), which are sorted and distinct. The two halves
+   * around the middle event differ in size by at most one, so their heights do too.
+   */
+  private static Node buildBalanced(List<CalendarEvent> events, int[] copies, int from, int to) {
+    if (from >= to) {
+      return null;
+    }
+    int middle = (from + to) >>> 1;
+    return new Node(
+        events.get(middle),
+        copies[middle],
+        buildBalanced(events, copies, from, middle),
+        buildBalanced(events, copies, middle + 1, to));
+  }
+
+  private static void collectAll(Node node, List<CalendarEvent> events) {
+    if (node == null) {
+      return;
+    }
+    collectAll(node.left, events);
+    for (int copy = 0; copy < node.copies; copy++) {
+      events.add(node.event);
+    }
+    collectAll(node.right, events);
+  }
+
+  private static void collectOverlapping(
+      Node node, Instant from, Instant to, List<CalendarEvent> overlappingEvents) {
+    // Every event of this subtree ends by the start of the window.
+    if (node == null || !node.maxEndTime.isAfter(from)) {
+      return;
+    }
+    collectOverlapping(node.left, from, to, overlappingEvents);
+    // This event and every event to its right start at or after the end of the window.
+    if (!node.event.getStartTime().isBefore(to)) {
+      return;
+    }
+    if (node.event.getEndTime().isAfter(from)) {
+      for (int copy = 0; copy < node.copies; copy++) {
+        overlappingEvents.add(node.event);
+      }
+    }
+    collectOverlapping(node.right, from, to, overlappingEvents);
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static int size(Node node) {
+    return node == null ? 0 : node.size;
+  }
+
+  private static Instant maxEndTime(Node node) {
+    return node == null ? Instant.MIN : node.maxEndTime;
+  }
+
+  private static Instant later(Instant a, Instant b) {
+    return a.isAfter(b) ? a : b;
+  }
+
+  /**
+   * Creates a node from an event and two subtrees whose heights differ by at most two, rotating
+   * once or twice so that the heights of the new node's subtrees differ by at most one.
+   */
+  private static Node balance(CalendarEvent event, int copies, Node left, Node right) {
+    if (height(left) > height(right) + 1) {
+      if (height(left.left) >= height(left.right)) {
+        return new Node(
+            left.event, left.copies, left.left, new Node(event, copies, left.right, right));
+      }
+      return new Node(
+          left.right.event,
+          left.right.copies,
+          new Node(left.event, left.copies, left.left, left.right.left),
+          new Node(event, copies, left.right.right, right));
+    }
+    if (height(right) > height(left) + 1) {
+      if (height(right.right) >= height(right.left)) {
+        return new Node(
+            right.event, right.copies, new Node(event, copies, left, right.left), right.right);
+      }
+      return new Node(
+          right.left.event,
+          right.left.copies,
+          new Node(event, copies, left, right.left.left),
+          new Node(right.event, right.copies, right.left.right, right.right));
+    }
+    return new Node(event, copies, left, right);
+  }
+}
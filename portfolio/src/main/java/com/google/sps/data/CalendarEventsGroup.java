@@ -1,18 +1,59 @@
 package com.google.sps.data;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-/** This class models a group of calendar events. */
+/**
+ * This class models a group of calendar events, together with the free time ranges between them
+ * inside the possible scheduling hours.
+ *
+ * <p>The events are kept in a CalendarEventIndex, so adding or removing an event takes logarithmic
+ * time and the events overlapping a time window can be found while skipping the parts of the index
+ * that cannot overlap it. The group also records how many events cover each stretch of time, and
+ * this is kept up to date as events change: a change only looks at the stretches inside the changed
+ * event, instead of sweeping over every event again. The free time ranges are the stretches that no
+ * event covers, and are read from these counts only when they are asked for.
+ *
+ * <p>The index and the counts are only built when the events are first changed or looked up. A
+ * group that is built just to read its free time ranges once, as the schedulers do, never builds
+ * them: its free time ranges are found by a sweep over a heap of the events, which only takes the
+ * events off the heap up to the free time range the caller stops at.
+ */
 public class CalendarEventsGroup {
 
-  // This variable that represents a group of calendar events will
-  // always be sorted in ascending order based on their start time.
-  public final List<CalendarEvent> events;
+  // Comparator for sorting and merging sources of events by start time only.
+  private static final Comparator<CalendarEvent> sortByEventStartTimeOnly =
+      Comparator.comparing(CalendarEvent::getStartTime);
+
+  // The events the group was built from, until the index and the coverage counts are
+  // built from them, and null afterwards.
+  private List<CalendarEvent> unindexedEvents;
+  private final boolean areUnindexedEventsSorted;
+
+  // All the events in the group, sorted by start time. The same event may be added
+  // more than once. Null until it is first needed.
+  private CalendarEventIndex events;
+
+  // The number of events that cover each stretch of time. The free time ranges are
+  // the parts of the possible scheduling hours where this count is zero. Null until
+  // it is first needed.
+  private CoverageCounts coverage;
 
   // These two variables represent the start and end of
   // possible schedule time. When these times are passed in
@@ -23,10 +64,6 @@ public class CalendarEventsGroup {
   public final Instant overallStartTime;
   public final Instant overallEndTime;
 
-  // Comparator for sorting events by start time
-  private static final Comparator<CalendarEvent> sortByEventStartTimeAscending =
-      Comparator.comparing(CalendarEvent::getStartTime);
-
   /**
    * @param events: a list of CalendarEvents' that represents the events already scheduled for the
    *     user.
@@ -36,6 +73,149 @@ public class CalendarEventsGroup {
    */
   public CalendarEventsGroup(
       List<CalendarEvent> events, Instant overallStartTime, Instant overallEndTime) {
+    this(iteratorOf(events), false, overallStartTime, overallEndTime);
+  }
+
+  /**
+   * Builds a group from single events and recurring events. Each recurring event is expanded lazily
+   * while the group is built, and only its instances inside the possible scheduling hours are made,
+   * so a long series costs no more than the instances that fall inside them.
+   *
+   * @param events: the single events already scheduled for the user.
+   * @param recurringEvents: the recurring events already scheduled for the user.
+   */
+  public CalendarEventsGroup(
+      List<CalendarEvent> events,
+      List<RecurringCalendarEvent> recurringEvents,
+      Instant overallStartTime,
+      Instant overallEndTime) {
+    this(
+        Iterators.concat(
+            iteratorOf(events),
+            Iterators.concat(
+                Iterators.transform(
+                    iteratorOfRecurring(recurringEvents),
+                    recurringEvent ->
+                        recurringEvent.occurrencesBetween(overallStartTime, overallEndTime)))),
+        false,
+        overallStartTime,
+        overallEndTime);
+  }
+
+  /**
+   * Builds the group from the events read from {@code events}. If {@code requireSortedEvents} is
+   * true, the events must come in ascending order of their start times; otherwise they are sorted
+   * first.
+   */
+  private CalendarEventsGroup(
+      Iterator<CalendarEvent> events,
+      boolean requireSortedEvents,
+      Instant overallStartTime,
+      Instant overallEndTime) {
+    if (overallStartTime == null) {
+      throw new IllegalArgumentException("Overall start of scheduling hours cannot be null");
+    }
+    if (overallEndTime == null) {
+      throw new IllegalArgumentException("Overall end of scheduling hours cannot be null");
+    }
+    if (overallStartTime.isAfter(overallEndTime)) {
+      throw new IllegalArgumentException("Start time cannot be after end time");
+    }
+    this.overallStartTime = overallStartTime;
+    this.overallEndTime = overallEndTime;
+
+    this.unindexedEvents = Lists.newArrayList(events);
+    if (requireSortedEvents) {
+      for (int index = 1; index < unindexedEvents.size(); index++) {
+        if (unindexedEvents
+            .get(index)
+            .getStartTime()
+            .isBefore(unindexedEvents.get(index - 1).getStartTime())) {
+          throw new IllegalArgumentException("Events of each source must be sorted by start time");
+        }
+      }
+    }
+    this.areUnindexedEventsSorted = requireSortedEvents;
+  }
+
+  /**
+   * Builds the event index and the coverage counts, if they are not built yet. Both are built from
+   * the events sorted by start time in one pass, rather than one event at a time.
+   */
+  private void buildIndex() {
+    if (unindexedEvents == null) {
+      return;
+    }
+    if (!areUnindexedEventsSorted) {
+      unindexedEvents.sort(sortByEventStartTimeOnly);
+    }
+    events = CalendarEventIndex.fromSortedEvents(unindexedEvents);
+    coverage =
+        CoverageCounts.fromSortedByStart(
+            unindexedEvents, CalendarEvent::getStartTime, CalendarEvent::getEndTime);
+    unindexedEvents = null;
+  }
+
+  /**
+   * Builds a group from several sources of events, for example the work, personal and team
+   * calendars of one user. The events of each source must already be sorted by start time. The
+   * sources are merged with a heap that holds the next event of each source, so the events are read
+   * in ascending order of their start times in O(n log k) time for k sources with n events in
+   * total, without sorting them again. The event index and the coverage counts are then built from
+   * the merged events in one sweep, which takes O(n log a) time when at most a events overlap or
+   * start at the same time.
+   *
+   * @throws IllegalArgumentException if a source is not sorted by start time.
+   */
+  public static CalendarEventsGroup fromSortedEventSources(
+      Collection<? extends Iterable<CalendarEvent>> eventSources,
+      Instant overallStartTime,
+      Instant overallEndTime) {
+    if (eventSources == null) {
+      throw new IllegalArgumentException("Event sources cannot be null");
+    }
+    // Any two events of one source that are out of order stay in that order after the
+    // merge, so checking the merged events also checks every source.
+    return new CalendarEventsGroup(
+        Iterators.mergeSorted(
+            Iterables.transform(eventSources, Iterable::iterator), sortByEventStartTimeOnly),
+        true,
+        overallStartTime,
+        overallEndTime);
+  }
+
+  private static Iterator<CalendarEvent> iteratorOf(List<CalendarEvent> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("Events cannot be null");
+    }
+    return events.iterator();
+  }
+
+  private static Iterator<RecurringCalendarEvent> iteratorOfRecurring(
+      List<RecurringCalendarEvent> recurringEvents) {
+    if (recurringEvents == null) {
+      throw new IllegalArgumentException("Recurring events cannot be null");
+    }
+    return recurringEvents.iterator();
+  }
+
+  /**
+   * Finds the free time ranges inside the possible scheduling hours of a very large list of events,
+   * such as an org-wide resource calendar, using every core. No group is built, so use this when
+   * the free time ranges are only read once.
+   *
+   * <p>The part of each event inside the possible scheduling hours is packed into one long, with
+   * its start in seconds after overallStartTime in the high half and its end in the low half, and
+   * the longs are sorted with a parallel sort. A parallel prefix maximum over the ends then gives,
+   * for every event, the latest end of any event that starts no later than it. There is a gap
+   * exactly where that latest end is before the start of the next event, and the gaps are found in
+   * parallel. Like TimeRange, this works with second precision.
+   *
+   * <p>Possible scheduling hours longer than 68 years do not fit the packing, and fall back to
+   * building a group.
+   */
+  public static List<TimeRange> findFreeTimeRangesInParallel(
+      List<CalendarEvent> events, Instant overallStartTime, Instant overallEndTime) {
     if (events == null) {
       throw new IllegalArgumentException("Events cannot be null");
     }
@@ -48,55 +228,295 @@ public class CalendarEventsGroup {
     if (overallStartTime.isAfter(overallEndTime)) {
       throw new IllegalArgumentException("Start time cannot be after end time");
     }
-    this.events = Lists.newArrayList(events);
-    Collections.sort(this.events, sortByEventStartTimeAscending);
+    long windowStart = overallStartTime.getEpochSecond();
+    long windowLength = overallEndTime.getEpochSecond() - windowStart;
+    if (windowLength > Integer.MAX_VALUE) {
+      return new CalendarEventsGroup(events, overallStartTime, overallEndTime).getFreeTimeRanges();
+    }
 
-    this.overallStartTime = overallStartTime;
-    this.overallEndTime = overallEndTime;
+    // Events with no time inside the possible scheduling hours are left out.
+    long[] packedEvents =
+        events
+            .parallelStream()
+            .mapToLong(
+                event -> {
+                  long start = Math.max(0, event.getStartTime().getEpochSecond() - windowStart);
+                  long end =
+                      Math.min(windowLength, event.getEndTime().getEpochSecond() - windowStart);
+                  return start < end ? (start << 32) | end : -1;
+                })
+            .filter(packedEvent -> packedEvent >= 0)
+            .toArray();
+    Arrays.parallelSort(packedEvents);
+
+    long[] latestEnds = new long[packedEvents.length];
+    Arrays.parallelSetAll(latestEnds, index -> packedEvents[index] & 0xFFFFFFFFL);
+    Arrays.parallelPrefix(latestEnds, Math::max);
+
+    int eventCount = packedEvents.length;
+    // Gap number i is the free time before the event at index i, or after the last event
+    // when i is eventCount; the free time before the first event starts at zero.
+    return IntStream.rangeClosed(0, eventCount)
+        .parallel()
+        .mapToObj(
+            index -> {
+              long gapStart = index == 0 ? 0 : latestEnds[index - 1];
+              long gapEnd = index == eventCount ? windowLength : packedEvents[index] >>> 32;
+              return gapStart < gapEnd
+                  ? TimeRange.fromEpochSeconds(windowStart + gapStart, windowStart + gapEnd)
+                  : null;
+            })
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  /** Returns all the events in the group, sorted by start time. */
+  public List<CalendarEvent> getEvents() {
+    buildIndex();
+    return events.getEvents();
+  }
+
+  /**
+   * Returns the events that overlap the time window [from, to], sorted by start time, in O(min(n,
+   * (k + 1) log n)) time for k results once the events are indexed. For example, rescheduling
+   * around a changed event only needs to look at the events returned for its time range.
+   */
+  public List<CalendarEvent> getEventsOverlapping(Instant from, Instant to) {
+    buildIndex();
+    return events.findOverlapping(from, to);
   }
 
   /**
-   * Calculates a TimeRange list which represents the periods of time that are empty of events and
-   * lie completely inside the possible scheduling hours. Originally written by tomasalvarez,
-   * modified by hollyyuqizheng.
+   * Returns a TimeRange list which represents the periods of time that are empty of events and lie
+   * completely inside the possible scheduling hours. Originally written by tomasalvarez, modified
+   * by hollyyuqizheng. See {@link #freeTimeRangesIterator}.
    */
   public List<TimeRange> getFreeTimeRanges() {
     List<TimeRange> possibleTimes = new ArrayList<TimeRange>();
+    freeTimeRangesIterator().forEachRemaining(possibleTimes::add);
+    return possibleTimes;
+  }
 
-    // This represents the earliest time that we can schedule a window for the
-    // meeting. As events are processed, this changes to their end times.
-    Instant earliestNonScheduledInstant = overallStartTime;
+  /**
+   * Returns an iterator that yields the free time ranges one at a time, in ascending order of their
+   * start times. Each free time range is found only when the iterator gets to it, so a caller that
+   * stops after the first few free time ranges only pays for the ones it looked at. Once the events
+   * have been changed or looked up, the free time ranges are read from the coverage counts; before
+   * that, the events are put in a heap in linear time and taken off it in order of their start
+   * times as the iterator moves on, so neither the counts nor the index are built. The group must
+   * not be changed while the iterator is in use.
+   */
+  public Iterator<TimeRange> freeTimeRangesIterator() {
+    if (unindexedEvents == null) {
+      return uncoveredTimeRangesBetween(overallStartTime, overallEndTime);
+    }
+    return sweepUncoveredTimeRanges();
+  }
+
+  /**
+   * Returns a spliterator over the free time ranges, for example to build a Stream of them. See
+   * {@link #freeTimeRangesIterator}.
+   */
+  public Spliterator<TimeRange> freeTimeRangesSpliterator() {
+    return Spliterators.spliteratorUnknownSize(
+        freeTimeRangesIterator(), Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+  }
 
+  /**
+   * Adds a new event into the event group, in logarithmic time. The time the event covers is no
+   * longer free.
+   */
+  public void addNewEvent(CalendarEvent event) {
+    buildIndex();
+    events.add(event);
+    if (!event.getStartTime().isBefore(event.getEndTime())) {
+      // An event with no duration takes no time away.
+      return;
+    }
+    coverage.change(event.getStartTime(), event.getEndTime(), 1, 0);
+  }
+
+  /**
+   * Removes one copy of an event from the group. The time that was covered only by this event
+   * becomes free again, and joins the free time ranges next to it. Returns false if the event is
+   * not in the group.
+   */
+  public boolean removeEvent(CalendarEvent event) {
+    buildIndex();
+    if (!events.remove(event)) {
+      return false;
+    }
+    if (event.getStartTime().isBefore(event.getEndTime())) {
+      coverage.change(event.getStartTime(), event.getEndTime(), -1, 0);
+    }
+    return true;
+  }
+
+  /**
+   * Removes {@code removedEvents} from the group and adds {@code addedEvents} to it, and returns
+   * how the free time ranges changed. Only the free time ranges inside the time of the changed
+   * events are compared, so this takes O(c log n + k) time for c changed events and k coverage
+   * entries inside them, and the caller can apply the returned delta instead of reading all free
+   * time ranges again. Removed events that are not in the group are ignored.
+   */
+  public FreeTimeDelta applyEventChanges(
+      Collection<CalendarEvent> addedEvents, Collection<CalendarEvent> removedEvents) {
+    if (addedEvents == null) {
+      throw new IllegalArgumentException("Added events cannot be null");
+    }
+    if (removedEvents == null) {
+      throw new IllegalArgumentException("Removed events cannot be null");
+    }
+    buildIndex();
+    List<TimeRange> changedTimeRanges = new ArrayList<TimeRange>();
+    addClippedTimeRanges(changedTimeRanges, addedEvents);
+    addClippedTimeRanges(changedTimeRanges, removedEvents);
+    List<TimeRange> affectedTimeRanges =
+        SortedTimeRanges.mergeOverlapping(SortedTimeRanges.sortByStart(changedTimeRanges));
+
+    List<TimeRange> freeTimeRangesBefore = findFreeTimeRangesInside(affectedTimeRanges);
+    for (CalendarEvent event : removedEvents) {
+      removeEvent(event);
+    }
+    for (CalendarEvent event : addedEvents) {
+      addNewEvent(event);
+    }
+    List<TimeRange> freeTimeRangesAfter = findFreeTimeRangesInside(affectedTimeRanges);
+
+    return new FreeTimeDelta(
+        SortedTimeRanges.subtract(freeTimeRangesAfter, freeTimeRangesBefore),
+        SortedTimeRanges.subtract(freeTimeRangesBefore, freeTimeRangesAfter));
+  }
+
+  /** Adds the part of each event inside the possible scheduling hours to {@code timeRanges}. */
+  private void addClippedTimeRanges(List<TimeRange> timeRanges, Collection<CalendarEvent> events) {
     for (CalendarEvent event : events) {
-      // Make sure that there is some time between the events and it is not
-      // later than the person's scheduling hours' ending time.
-      if (event.getStartTime().isAfter(earliestNonScheduledInstant)) {
-        if (event.getStartTime().isAfter(overallEndTime)) {
-          possibleTimes.add(TimeRange.fromStartEnd(earliestNonScheduledInstant, overallEndTime));
-        } else {
-          possibleTimes.add(
-              TimeRange.fromStartEnd(earliestNonScheduledInstant, event.getStartTime()));
+      addIfNotEmpty(
+          timeRanges,
+          later(event.getStartTime(), overallStartTime),
+          earlier(event.getEndTime(), overallEndTime));
+    }
+  }
+
+  /**
+   * Returns the parts of the free time ranges inside {@code timeRanges}, which are sorted and do
+   * not overlap, sorted by start time.
+   */
+  private List<TimeRange> findFreeTimeRangesInside(List<TimeRange> timeRanges) {
+    List<TimeRange> freeTimeRangesInside = new ArrayList<TimeRange>();
+    for (TimeRange timeRange : timeRanges) {
+      uncoveredTimeRangesBetween(timeRange.start(), timeRange.end())
+          .forEachRemaining(freeTimeRangesInside::add);
+    }
+    return freeTimeRangesInside;
+  }
+
+  /**
+   * Returns an iterator that makes the stretches of [from, to] that no event covers, one at a time
+   * and sorted by start time. Only the coverage entries inside [from, to] are walked, and each of
+   * them only when the iterator gets to it.
+   */
+  private Iterator<TimeRange> uncoveredTimeRangesBetween(Instant from, Instant to) {
+    buildIndex();
+    Iterator<Map.Entry<Instant, Integer>> entries =
+        coverage.asMap().subMap(from, false, to, false).entrySet().iterator();
+    return new AbstractIterator<TimeRange>() {
+      // This represents the start of the current stretch of time with no events,
+      // or null while the current stretch is covered by an event.
+      private Instant uncoveredStart = coverage.countAt(from) == 0 ? from : null;
+
+      @Override
+      protected TimeRange computeNext() {
+        while (entries.hasNext()) {
+          Map.Entry<Instant, Integer> entry = entries.next();
+          if (entry.getValue() == 0) {
+            uncoveredStart = entry.getKey();
+          } else if (uncoveredStart != null) {
+            TimeRange uncoveredTimeRange = TimeRange.fromStartEnd(uncoveredStart, entry.getKey());
+            uncoveredStart = null;
+            return uncoveredTimeRange;
+          }
+        }
+        if (uncoveredStart != null && uncoveredStart.isBefore(to)) {
+          TimeRange uncoveredTimeRange = TimeRange.fromStartEnd(uncoveredStart, to);
+          uncoveredStart = null;
+          return uncoveredTimeRange;
         }
+        return endOfData();
       }
-      // Check if the earliest non scheduled time needs to be shifted to later.
-      if (earliestNonScheduledInstant.isBefore(event.getEndTime())) {
-        earliestNonScheduledInstant = event.getEndTime();
+    };
+  }
+
+  /**
+   * Returns an iterator that finds the stretches of the possible scheduling hours that no event
+   * covers, straight from the events the group was built from. The events inside the hours are put
+   * in a heap in linear time, and each one is taken off the heap, in O(log n) time, only when the
+   * sweep gets to its start time.
+   */
+  private Iterator<TimeRange> sweepUncoveredTimeRanges() {
+    List<EventByStartTime> eventsInside = new ArrayList<EventByStartTime>();
+    for (CalendarEvent event : unindexedEvents) {
+      // Events with no time inside the possible scheduling hours cover nothing.
+      if (event.getStartTime().isBefore(event.getEndTime())
+          && event.getStartTime().isBefore(overallEndTime)
+          && event.getEndTime().isAfter(overallStartTime)) {
+        eventsInside.add(new EventByStartTime(event));
       }
     }
-    // The end of the work hours is potentially never included so we check.
-    if (overallEndTime.isAfter(earliestNonScheduledInstant)) {
-      possibleTimes.add(TimeRange.fromStartEnd(earliestNonScheduledInstant, overallEndTime));
+    // Building a PriorityQueue from a whole collection heapifies it in linear time.
+    PriorityQueue<EventByStartTime> eventsByStartTime =
+        new PriorityQueue<EventByStartTime>(eventsInside);
+
+    return new AbstractIterator<TimeRange>() {
+      // The earliest time that may be free, as no event taken off the heap covers it.
+      private Instant uncoveredStart = overallStartTime;
+
+      @Override
+      protected TimeRange computeNext() {
+        while (uncoveredStart.isBefore(overallEndTime)) {
+          EventByStartTime nextEvent = eventsByStartTime.peek();
+          if (nextEvent == null || nextEvent.event.getStartTime().isAfter(uncoveredStart)) {
+            Instant uncoveredEnd =
+                nextEvent == null
+                    ? overallEndTime
+                    : earlier(nextEvent.event.getStartTime(), overallEndTime);
+            TimeRange uncoveredTimeRange = TimeRange.fromStartEnd(uncoveredStart, uncoveredEnd);
+            uncoveredStart = uncoveredEnd;
+            return uncoveredTimeRange;
+          }
+          eventsByStartTime.poll();
+          uncoveredStart = later(uncoveredStart, nextEvent.event.getEndTime());
+        }
+        return endOfData();
+      }
+    };
+  }
+
+  /** Orders events by start time, so that a PriorityQueue can heapify them in linear time. */
+  private static final class EventByStartTime implements Comparable<EventByStartTime> {
+    private final CalendarEvent event;
+
+    private EventByStartTime(CalendarEvent event) {
+      this.event = event;
     }
 
-    return possibleTimes;
+    @Override
+    public int compareTo(EventByStartTime other) {
+      return event.getStartTime().compareTo(other.event.getStartTime());
+    }
   }
 
-  /**
-   * Adds a new event into the event group. Returns the new collection of events, sorted based on
-   * start time.
-   */
-  public void addNewEvent(CalendarEvent event) {
-    events.add(event);
-    Collections.sort(events, sortByEventStartTimeAscending);
+  private static void addIfNotEmpty(List<TimeRange> timeRanges, Instant start, Instant end) {
+    if (start.isBefore(end)) {
+      timeRanges.add(TimeRange.fromStartEnd(start, end));
+    }
+  }
+
+  private static Instant earlier(Instant a, Instant b) {
+    return a.isBefore(b) ? a : b;
+  }
+
+  private static Instant later(Instant a, Instant b) {
+    return a.isAfter(b) ? a : b;
   }
 }
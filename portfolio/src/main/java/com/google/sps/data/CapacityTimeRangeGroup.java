@@ -0,0 +1,117 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Models the time of a resource that can be booked several times at once, such as a room that seats
+ * k parallel sessions or a team of 3 interviewers. A TimeRangeGroup only knows whether a time is
+ * free or not; this group counts how many bookings cover each instant, and a time is free while
+ * that count is below the capacity of the resource.
+ *
+ * <p>The counts are kept as a step function, like the event coverage of CalendarEventsGroup. The
+ * time ranges that still have room are kept in an AugmentedTreeTimeRangeGroup, which is updated
+ * with only the stretches that fill up or gain room on each change. Reserving, releasing and
+ * finding the first place a booking fits each take O(log n + k) time, where k is the number of
+ * count changes inside the booked time range.
+ *
+ * <p>Iterating over the group yields the time ranges that still have room for one more booking.
+ */
+public class CapacityTimeRangeGroup implements Iterable<TimeRange> {
+  private final int capacity;
+
+  // The number of bookings that cover each stretch of time.
+  private final CoverageCounts load = new CoverageCounts();
+
+  // The parts of the available time ranges where the load is below the capacity.
+  private final AugmentedTreeTimeRangeGroup spareTimeRanges;
+
+  /**
+   * Creates a group where the resource can be booked up to {@code capacity} times at once inside
+   * {@code availableTimeRanges}, and not at all outside them.
+   */
+  public CapacityTimeRangeGroup(Iterable<TimeRange> availableTimeRanges, int capacity) {
+    if (availableTimeRanges == null) {
+      throw new IllegalArgumentException("Available time ranges cannot be null");
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least one, got " + capacity);
+    }
+    this.capacity = capacity;
+    this.spareTimeRanges = new AugmentedTreeTimeRangeGroup(availableTimeRanges);
+  }
+
+  /** Returns the number of bookings the resource can hold at once. */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** Returns the number of bookings that cover {@code time}. */
+  public int getLoad(Instant time) {
+    return load.countAt(time);
+  }
+
+  /**
+   * Books {@code timeRange} once if the resource has room for it during all of it. Returns false,
+   * and changes nothing, if some of the time range is outside the available time ranges or already
+   * booked to capacity. A time range with no duration takes no room.
+   */
+  public boolean tryReserve(TimeRange timeRange) {
+    if (!spareTimeRanges.hasTimeRange(timeRange)) {
+      return false;
+    }
+    // The stretches that reach the capacity have no room left.
+    spareTimeRanges.deleteAll(load.change(timeRange.start(), timeRange.end(), 1, capacity));
+    return true;
+  }
+
+  /**
+   * Cancels one booking of {@code timeRange}. The stretches that were booked to capacity have room
+   * again. Like booking it, releasing a time range with no duration changes nothing.
+   *
+   * @throws IllegalArgumentException if some of the time range is not booked.
+   */
+  public void release(TimeRange timeRange) {
+    if (timeRange.durationSeconds() > 0
+        && load.minCountIn(timeRange.start(), timeRange.end()) < 1) {
+      throw new IllegalArgumentException("Time range to release is not booked: " + timeRange);
+    }
+    spareTimeRanges.addAll(load.change(timeRange.start(), timeRange.end(), -1, capacity - 1));
+  }
+
+  /**
+   * Finds the earliest place at or after {@code notBefore} where a booking of {@code duration} fits
+   * without going over the capacity, in logarithmic time. See {@link TimeRangeGroup#findFirstFit}.
+   */
+  public Optional<Instant> findFirstFit(Duration duration, Instant notBefore) {
+    return spareTimeRanges.findFirstFit(duration, notBefore);
+  }
+
+  /**
+   * Books the earliest place at or after {@code notBefore} where {@code duration} fits. Returns the
+   * booked time range, or an empty Optional if the duration fits nowhere or the place that was
+   * found could not be booked.
+   */
+  public Optional<TimeRange> reserveFirstFit(Duration duration, Instant notBefore) {
+    Optional<Instant> start = findFirstFit(duration, notBefore);
+    if (!start.isPresent()) {
+      return Optional.empty();
+    }
+    TimeRange reserved = TimeRange.fromStartEnd(start.get(), start.get().plus(duration));
+    if (!tryReserve(reserved)) {
+      return Optional.empty();
+    }
+    return Optional.of(reserved);
+  }
+
+  /**
+   * Returns an iterator for the time ranges that have room for one more booking, in ascending order
+   * of their start times.
+   */
+  @Override
+  public Iterator<TimeRange> iterator() {
+    return spareTimeRanges.iterator();
+  }
+}
@@ -0,0 +1,73 @@
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the parts of a sorted sequence of disjoint time ranges that lie inside the window
+ * [from, to]. Time ranges that end at or before {@code from} are skipped, the iteration stops at
+ * the first time range that starts at or after {@code to}, and the time ranges on either edge of
+ * the window are cut to fit inside it. No time ranges are copied; the window is applied as the
+ * underlying iterator advances.
+ */
+final class ClippedTimeRangeIterator implements Iterator<TimeRange> {
+  private final Iterator<TimeRange> timeRanges;
+  private final Instant from;
+  private final Instant to;
+  private TimeRange next;
+
+  /**
+   * @param timeRanges: time ranges sorted by start time. For the skipping to be cheap, the iterator
+   *     should already be positioned at or just before the first time range ending after {@code
+   *     from}.
+   * @param from: the start of the window.
+   * @param to: the end of the window, or Instant.MAX for a window with no end.
+   */
+  ClippedTimeRangeIterator(Iterator<TimeRange> timeRanges, Instant from, Instant to) {
+    this.timeRanges = timeRanges;
+    this.from = from;
+    this.to = to;
+    this.next = findFirst();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return next != null;
+  }
+
+  @Override
+  public TimeRange next() {
+    if (next == null) {
+      throw new NoSuchElementException();
+    }
+    TimeRange current = next;
+    next = timeRanges.hasNext() ? clip(timeRanges.next()) : null;
+    return current;
+  }
+
+  private TimeRange findFirst() {
+    while (timeRanges.hasNext()) {
+      TimeRange timeRange = timeRanges.next();
+      if (timeRange.end().isAfter(from)) {
+        return clip(timeRange);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Cuts a time range ending after {@code from} to the window, or returns null if it is past it.
+   */
+  private TimeRange clip(TimeRange timeRange) {
+    if (!timeRange.start().isBefore(to)) {
+      return null;
+    }
+    if (!timeRange.start().isBefore(from) && !timeRange.end().isAfter(to)) {
+      return timeRange;
+    }
+    Instant start = timeRange.start().isBefore(from) ? from : timeRange.start();
+    Instant end = timeRange.end().isAfter(to) ? to : timeRange.end();
+    return TimeRange.fromStartEnd(start, end);
+  }
+}
@@ -0,0 +1,508 @@
+package com.google.sps.data;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Models an implementation of the TimeRangeGroup model that can be shared between threads, for
+ * example the free time of a room that many users book at once.
+ *
+ * <p>Time is cut into windows of equal length, one day by default, and each window is a stripe with
+ * its own atomic reference to the root of an immutable balanced tree, like the one of
+ * AugmentedTreeTimeRangeGroup. A time range that crosses a window boundary is stored as one piece
+ * per window, and the pieces are joined again when the group is read. A change builds the new
+ * version of each tree it touches from the current root, which copies O(log n) nodes, and installs
+ * it with a compare-and-set that is retried if another thread changed the same window in the
+ * meantime. Changes to different windows never conflict, so reservations on different days scale
+ * with the number of threads, and readers never wait.
+ *
+ * <p>Every change to a single window is atomic. A reservation that crosses windows first holds each
+ * of its windows in ascending order, checking that its piece is free there, and then takes all of
+ * its pieces at one instant by deciding its outcome, or gives up every window without changing it.
+ * Readers see a held window as it was until the reservation is decided, and other changes to a held
+ * window wait for the decision. Holding windows in ascending order means that two reservations
+ * never wait for each other in a cycle. Iterators read each window when they reach it, so they see
+ * a consistent snapshot of every window but not of the whole group. Since pieces are joined at
+ * window boundaries, deleting a time range with no duration exactly at a window boundary does not
+ * split the time range there.
+ */
+public class ConcurrentTimeRangeGroup implements TimeRangeGroup {
+  private static final Duration DEFAULT_WINDOW_LENGTH = Duration.ofDays(1);
+
+  private final long windowSeconds;
+
+  // The content of each window, keyed by the index of the window. Windows that
+  // never had a time range have no entry.
+  private final ConcurrentNavigableMap<Long, AtomicReference<Window>> stripes =
+      new ConcurrentSkipListMap<Long, AtomicReference<Window>>();
+
+  /** Adds all the input time ranges to the group, which is striped into windows of one day. */
+  public ConcurrentTimeRangeGroup(Iterable<TimeRange> timeRanges) {
+    this(timeRanges, DEFAULT_WINDOW_LENGTH);
+  }
+
+  /**
+   * Adds all the input time ranges to the group, which is striped into windows of {@code
+   * windowLength}. Shorter windows let more changes run in parallel, while longer windows split
+   * fewer time ranges into pieces.
+   */
+  public ConcurrentTimeRangeGroup(Iterable<TimeRange> timeRanges, Duration windowLength) {
+    if (windowLength == null || windowLength.getSeconds() < 1) {
+      throw new IllegalArgumentException("Window length must be at least one second");
+    }
+    this.windowSeconds = windowLength.getSeconds();
+
+    TreeMap<Long, List<TimeRange>> piecesByWindow = new TreeMap<Long, List<TimeRange>>();
+    for (TimeRange timeRange :
+        SortedTimeRanges.union(Collections.emptyList(), SortedTimeRanges.sortByStart(timeRanges))) {
+      splitIntoWindows(timeRange, piecesByWindow);
+    }
+    for (Map.Entry<Long, List<TimeRange>> window : piecesByWindow.entrySet()) {
+      stripes.put(
+          window.getKey(),
+          new AtomicReference<Window>(
+              new Window(TimeRangeTree.buildFromSorted(window.getValue()))));
+    }
+  }
+
+  /**
+   * Adds a new time range to the group. If the time range to add overlaps with any existing time
+   * range, the overlapping time ranges are replaced by one merged range.
+   */
+  @Override
+  public void addTimeRange(TimeRange timeRange) {
+    for (Map.Entry<Long, List<TimeRange>> window : splitIntoWindows(timeRange).entrySet()) {
+      TimeRange piece = window.getValue().get(0);
+      update(getOrCreateStripe(window.getKey()), node -> TimeRangeTree.addTimeRange(node, piece));
+    }
+  }
+
+  /**
+   * Checks if a time range exists in the group. For example, if [3:00 - 4:00] is in the group,
+   * [3:00 - 3:30] is considered to exist as a time range in the group.
+   */
+  @Override
+  public boolean hasTimeRange(TimeRange timeRangeToCheck) {
+    long start = timeRangeToCheck.startEpochSecond();
+    if (start == timeRangeToCheck.endEpochSecond() && isWindowStart(start)) {
+      // An instant on a window boundary may be the end of a piece in the window before.
+      AtomicReference<Window> previousStripe = stripes.get(windowOf(start) - 1);
+      if (previousStripe != null
+          && TimeRangeTree.hasTimeRange(read(previousStripe), timeRangeToCheck)) {
+        return true;
+      }
+    }
+    for (Map.Entry<Long, List<TimeRange>> window : splitIntoWindows(timeRangeToCheck).entrySet()) {
+      AtomicReference<Window> stripe = stripes.get(window.getKey());
+      if (stripe == null || !TimeRangeTree.hasTimeRange(read(stripe), window.getValue().get(0))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Deletes a time range from the group. See {@link TimeRangeGroup#deleteTimeRange}. */
+  @Override
+  public void deleteTimeRange(TimeRange timeRangeToDelete) {
+    for (Map.Entry<Long, List<TimeRange>> window : splitIntoWindows(timeRangeToDelete).entrySet()) {
+      AtomicReference<Window> stripe = stripes.get(window.getKey());
+      if (stripe != null) {
+        TimeRange piece = window.getValue().get(0);
+        update(stripe, node -> TimeRangeTree.deleteTimeRange(node, piece));
+      }
+    }
+  }
+
+  /** Adds all the input time ranges, as one atomic change per window. */
+  @Override
+  public void addAll(Iterable<TimeRange> timeRanges) {
+    for (Map.Entry<Long, List<TimeRange>> window : splitIntoWindows(timeRanges).entrySet()) {
+      update(
+          getOrCreateStripe(window.getKey()),
+          node -> {
+            for (TimeRange piece : window.getValue()) {
+              node = TimeRangeTree.addTimeRange(node, piece);
+            }
+            return node;
+          });
+    }
+  }
+
+  /** Deletes all the input time ranges, as one atomic change per window. */
+  @Override
+  public void deleteAll(Iterable<TimeRange> timeRanges) {
+    for (Map.Entry<Long, List<TimeRange>> window : splitIntoWindows(timeRanges).entrySet()) {
+      AtomicReference<Window> stripe = stripes.get(window.getKey());
+      if (stripe != null) {
+        update(
+            stripe,
+            node -> {
+              for (TimeRange piece : window.getValue()) {
+                node = TimeRangeTree.deleteTimeRange(node, piece);
+              }
+              return node;
+            });
+      }
+    }
+  }
+
+  /**
+   * Deletes {@code timeRange} from the group if all of it is in the group. Returns true if the time
+   * range was reserved this way, or false if some of it is not free, for example because another
+   * thread reserved an overlapping time range first. A reservation that crosses windows holds all
+   * of its windows before it takes any time, so it takes all of its time at once or none of it.
+   */
+  public boolean tryReserve(TimeRange timeRange) {
+    if (timeRange.durationSeconds() == 0) {
+      if (!hasTimeRange(timeRange)) {
+        return false;
+      }
+      deleteTimeRange(timeRange);
+      return true;
+    }
+
+    TreeMap<Long, List<TimeRange>> piecesByWindow = splitIntoWindows(timeRange);
+    if (piecesByWindow.size() == 1) {
+      AtomicReference<Window> stripe = stripes.get(piecesByWindow.firstKey());
+      return stripe != null && tryReserve(stripe, piecesByWindow.firstEntry().getValue().get(0));
+    }
+
+    Reservation reservation = new Reservation();
+    List<AtomicReference<Window>> heldStripes = new ArrayList<AtomicReference<Window>>();
+    List<Window> heldWindows = new ArrayList<Window>();
+    boolean isFree = true;
+    for (Map.Entry<Long, List<TimeRange>> window : piecesByWindow.entrySet()) {
+      AtomicReference<Window> stripe = stripes.get(window.getKey());
+      Window held = stripe == null ? null : hold(stripe, window.getValue().get(0), reservation);
+      if (held == null) {
+        isFree = false;
+        break;
+      }
+      heldStripes.add(stripe);
+      heldWindows.add(held);
+    }
+
+    // Deciding the outcome takes every piece at once, or gives up every held window unchanged.
+    reservation.outcome = isFree ? Outcome.SUCCEEDED : Outcome.FAILED;
+    for (int held = 0; held < heldStripes.size(); held++) {
+      release(heldStripes.get(held), heldWindows.get(held));
+    }
+    return isFree;
+  }
+
+  /** Atomically deletes {@code piece} from one window if all of it is in the window. */
+  private static boolean tryReserve(AtomicReference<Window> stripe, TimeRange piece) {
+    while (true) {
+      Window current = stripe.get();
+      if (current.holder != null) {
+        release(stripe, current);
+        continue;
+      }
+      if (!TimeRangeTree.hasTimeRange(current.root, piece)) {
+        return false;
+      }
+      if (stripe.compareAndSet(
+          current, new Window(TimeRangeTree.deleteTimeRange(current.root, piece)))) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Holds one window for {@code reservation} if all of {@code piece} is in the window, and returns
+   * the held content of the window. Returns null if some of the piece is not free.
+   */
+  private static Window hold(
+      AtomicReference<Window> stripe, TimeRange piece, Reservation reservation) {
+    while (true) {
+      Window current = stripe.get();
+      if (current.holder != null) {
+        release(stripe, current);
+        continue;
+      }
+      if (!TimeRangeTree.hasTimeRange(current.root, piece)) {
+        return null;
+      }
+      Window held =
+          new Window(current.root, reservation, TimeRangeTree.deleteTimeRange(current.root, piece));
+      if (stripe.compareAndSet(current, held)) {
+        return held;
+      }
+    }
+  }
+
+  /**
+   * Waits until the reservation that holds {@code held} is decided, and then replaces the held
+   * window by its outcome. Any thread that finds a held window may do this.
+   */
+  private static void release(AtomicReference<Window> stripe, Window held) {
+    while (held.holder.outcome == Outcome.UNDECIDED) {
+      Thread.yield();
+    }
+    stripe.compareAndSet(held, new Window(held.visibleRoot()));
+  }
+
+  /** Atomically replaces the tree of one window by {@code change} applied to it. */
+  private static void update(
+      AtomicReference<Window> stripe, UnaryOperator<TimeRangeTree.Node> change) {
+    while (true) {
+      Window current = stripe.get();
+      if (current.holder != null) {
+        release(stripe, current);
+        continue;
+      }
+      if (stripe.compareAndSet(current, new Window(change.apply(current.root)))) {
+        return;
+      }
+    }
+  }
+
+  /** Returns the root of the tree of one window as readers see it. */
+  private static TimeRangeTree.Node read(AtomicReference<Window> stripe) {
+    return stripe.get().visibleRoot();
+  }
+
+  /**
+   * Finds the earliest place at or after {@code notBefore} where {@code duration} fits and deletes
+   * it from the group. Returns the reserved time range, or an empty Optional if the duration fits
+   * nowhere. If another thread takes the place first, the search starts again.
+   */
+  public Optional<TimeRange> reserveFirstFit(Duration duration, Instant notBefore) {
+    while (true) {
+      Optional<Instant> start = findFirstFit(duration, notBefore);
+      if (!start.isPresent()) {
+        return Optional.empty();
+      }
+      TimeRange reserved = TimeRange.fromStartEnd(start.get(), start.get().plus(duration));
+      if (tryReserve(reserved)) {
+        return Optional.of(reserved);
+      }
+    }
+  }
+
+  /**
+   * Finds the earliest place where {@code duration} fits. See {@link TimeRangeGroup#findFirstFit}.
+   * Inside each window the place is found in logarithmic time; a time range that runs up to the end
+   * of a window is carried over into the next window, where it may continue.
+   */
+  @Override
+  public Optional<Instant> findFirstFit(Duration duration, Instant notBefore) {
+    // Ranges are kept with second precision, so round a partial second up.
+    long requiredSeconds = duration.getSeconds() + (duration.getNano() > 0 ? 1 : 0);
+    long notBeforeSecond = notBefore.getEpochSecond();
+
+    // The start of a free time range that runs up to the end of the previous window.
+    long carriedStart = 0;
+    boolean hasCarriedStart = false;
+    long previousWindow = 0;
+
+    for (Map.Entry<Long, AtomicReference<Window>> stripe :
+        stripes.tailMap(windowOf(notBeforeSecond), true).entrySet()) {
+      long window = stripe.getKey();
+      long windowStart = window * windowSeconds;
+      long windowEnd = windowStart + windowSeconds;
+      TimeRangeTree.Node root = read(stripe.getValue());
+
+      if (hasCarriedStart) {
+        TimeRange first = TimeRangeTree.ceiling(root, windowStart);
+        hasCarriedStart =
+            window == previousWindow + 1
+                && first != null
+                && first.startEpochSecond() == windowStart;
+        if (hasCarriedStart) {
+          if (carriedStart + requiredSeconds <= first.endEpochSecond()) {
+            return Optional.of(Instant.ofEpochSecond(carriedStart));
+          }
+          hasCarriedStart = first.endEpochSecond() == windowEnd;
+        }
+      }
+      previousWindow = window;
+      if (hasCarriedStart) {
+        // The carried time range covers this whole window.
+        continue;
+      }
+
+      Instant windowNotBefore =
+          notBeforeSecond > windowStart ? notBefore : Instant.ofEpochSecond(windowStart);
+      Instant fit = TimeRangeTree.findFirstFit(root, duration, windowNotBefore);
+      if (fit != null) {
+        return Optional.of(fit);
+      }
+
+      TimeRange last = TimeRangeTree.floor(root, windowEnd);
+      if (last != null && last.endEpochSecond() == windowEnd) {
+        hasCarriedStart = true;
+        carriedStart = Math.max(last.startEpochSecond(), notBeforeSecond);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns an immutable copy of the time ranges currently in the group, in linear time. Each
+   * window is copied as it was at one instant.
+   */
+  public PersistentTimeRangeGroup snapshot() {
+    return PersistentTimeRangeGroup.of(this);
+  }
+
+  /**
+   * Returns an iterator for the time ranges that end after {@code from}. See {@link
+   * TimeRangeGroup#iteratorFrom}.
+   */
+  @Override
+  public Iterator<TimeRange> iteratorFrom(Instant from) {
+    long fromWindow = windowOf(from.getEpochSecond());
+    Iterator<TimeRange> pieces =
+        Iterators.concat(
+            Iterators.transform(
+                stripes.tailMap(fromWindow, true).entrySet().iterator(),
+                stripe ->
+                    stripe.getKey() == fromWindow
+                        ? TimeRangeTree.iteratorFrom(read(stripe.getValue()), from)
+                        : TimeRangeTree.iterator(read(stripe.getValue()))));
+    return new ClippedTimeRangeIterator(new JoiningIterator(pieces), from, Instant.MAX);
+  }
+
+  /**
+   * Returns an iterator for all time ranges, in ascending order of their start times. Each window
+   * is read when the iterator reaches it.
+   */
+  @Override
+  public Iterator<TimeRange> iterator() {
+    return new JoiningIterator(
+        Iterators.concat(
+            Iterators.transform(
+                stripes.values().iterator(), stripe -> TimeRangeTree.iterator(read(stripe)))));
+  }
+
+  /** The outcome of a reservation across windows. */
+  private enum Outcome {
+    UNDECIDED,
+    SUCCEEDED,
+    FAILED
+  }
+
+  /** A reservation across windows, which holds its windows until its outcome is decided. */
+  private static final class Reservation {
+    private volatile Outcome outcome = Outcome.UNDECIDED;
+  }
+
+  /**
+   * The content of one window: the root of its tree and, while a reservation across windows holds
+   * the window, the reservation and the root the window has if the reservation succeeds.
+   */
+  private static final class Window {
+    private final TimeRangeTree.Node root;
+    private final Reservation holder;
+    private final TimeRangeTree.Node reservedRoot;
+
+    private Window(TimeRangeTree.Node root) {
+      this(root, null, null);
+    }
+
+    private Window(TimeRangeTree.Node root, Reservation holder, TimeRangeTree.Node reservedRoot) {
+      this.root = root;
+      this.holder = holder;
+      this.reservedRoot = reservedRoot;
+    }
+
+    /** Returns the root of the tree, which is the reserved one once the holder has succeeded. */
+    private TimeRangeTree.Node visibleRoot() {
+      return holder != null && holder.outcome == Outcome.SUCCEEDED ? reservedRoot : root;
+    }
+  }
+
+  /** Joins the pieces of a time range that were split at window boundaries. */
+  private final class JoiningIterator implements Iterator<TimeRange> {
+    private final PeekingIterator<TimeRange> pieces;
+
+    private JoiningIterator(Iterator<TimeRange> pieces) {
+      this.pieces = Iterators.peekingIterator(pieces);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return pieces.hasNext();
+    }
+
+    @Override
+    public TimeRange next() {
+      if (!pieces.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      TimeRange joined = pieces.next();
+      while (pieces.hasNext()
+          && pieces.peek().startEpochSecond() == joined.endEpochSecond()
+          && isWindowStart(joined.endEpochSecond())) {
+        joined =
+            TimeRange.fromEpochSeconds(joined.startEpochSecond(), pieces.next().endEpochSecond());
+      }
+      return joined;
+    }
+  }
+
+  private AtomicReference<Window> getOrCreateStripe(long window) {
+    return stripes.computeIfAbsent(window, key -> new AtomicReference<Window>(new Window(null)));
+  }
+
+  private long windowOf(long epochSecond) {
+    return Math.floorDiv(epochSecond, windowSeconds);
+  }
+
+  private boolean isWindowStart(long epochSecond) {
+    return Math.floorMod(epochSecond, windowSeconds) == 0;
+  }
+
+  /** Returns the pieces of all the input time ranges, grouped by window in ascending order. */
+  private TreeMap<Long, List<TimeRange>> splitIntoWindows(Iterable<TimeRange> timeRanges) {
+    TreeMap<Long, List<TimeRange>> piecesByWindow = new TreeMap<Long, List<TimeRange>>();
+    for (TimeRange timeRange : timeRanges) {
+      splitIntoWindows(timeRange, piecesByWindow);
+    }
+    return piecesByWindow;
+  }
+
+  /** Returns the pieces of {@code timeRange}, one per window in ascending order. */
+  private TreeMap<Long, List<TimeRange>> splitIntoWindows(TimeRange timeRange) {
+    TreeMap<Long, List<TimeRange>> piecesByWindow = new TreeMap<Long, List<TimeRange>>();
+    splitIntoWindows(timeRange, piecesByWindow);
+    return piecesByWindow;
+  }
+
+  /**
+   * Cuts {@code timeRange} at every window boundary inside it and adds each piece to the list of
+   * its window. A time range with no duration is a piece of the window that contains it.
+   */
+  private void splitIntoWindows(
+      TimeRange timeRange, TreeMap<Long, List<TimeRange>> piecesByWindow) {
+    long start = timeRange.startEpochSecond();
+    long end = timeRange.endEpochSecond();
+    long lastWindow = windowOf(end == start ? start : end - 1);
+    for (long window = windowOf(start); window <= lastWindow; window++) {
+      long windowStart = window * windowSeconds;
+      long pieceStart = Math.max(start, windowStart);
+      long pieceEnd = Math.min(end, windowStart + windowSeconds);
+      piecesByWindow
+          .computeIfAbsent(window, key -> new ArrayList<TimeRange>())
+          .add(
+              pieceStart == start && pieceEnd == end
+                  ? timeRange
+                  : TimeRange.fromEpochSeconds(pieceStart, pieceEnd));
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.google.sps.data;
+
+import com.google.common.collect.ImmutableSortedMap;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Counts how many time ranges, such as events or bookings, cover each instant. The counts are kept
+ * as a step function in a sorted map: a key maps to the count from that instant up to the next key,
+ * and before the first key the count is zero. Neighbouring entries always have different counts, so
+ * a change to [start, end] only looks at the O(k) entries inside it, plus O(log n) to find them.
+ */
+final class CoverageCounts {
+  private final NavigableMap<Instant, Integer> counts;
+
+  /** Creates counts where nothing is covered. */
+  CoverageCounts() {
+    this.counts = new TreeMap<Instant, Integer>();
+  }
+
+  private CoverageCounts(SortedMap<Instant, Integer> counts) {
+    // Copying a sorted map into a TreeMap builds the tree in linear time.
+    this.counts = new TreeMap<Instant, Integer>(counts);
+  }
+
+  /**
+   * Creates the counts of {@code ranges}, which are sorted by start time, in one sweep over them.
+   * The starts come in order, and the ends that are still to come are kept in a heap, so this takes
+   * O(n log a) time when at most a ranges are still open at once, instead of inserting every start
+   * and end into the sorted map one by one.
+   */
+  static <T> CoverageCounts fromSortedByStart(
+      List<T> ranges, Function<T, Instant> getStart, Function<T, Instant> getEnd) {
+    ImmutableSortedMap.Builder<Instant, Integer> steps = ImmutableSortedMap.naturalOrder();
+    PriorityQueue<Instant> pendingEnds = new PriorityQueue<Instant>();
+    Iterator<T> rangeIterator = ranges.iterator();
+    T nextRange = rangeIterator.hasNext() ? rangeIterator.next() : null;
+    int count = 0;
+    int stepCount = 0;
+    while (nextRange != null || !pendingEnds.isEmpty()) {
+      // The next change of the count is at the earlier of the next start and the next end.
+      Instant time =
+          nextRange == null
+                  || (!pendingEnds.isEmpty()
+                      && pendingEnds.peek().isBefore(getStart.apply(nextRange)))
+              ? pendingEnds.peek()
+              : getStart.apply(nextRange);
+      while (nextRange != null && getStart.apply(nextRange).equals(time)) {
+        count++;
+        pendingEnds.add(getEnd.apply(nextRange));
+        nextRange = rangeIterator.hasNext() ? rangeIterator.next() : null;
+      }
+      while (!pendingEnds.isEmpty() && pendingEnds.peek().equals(time)) {
+        pendingEnds.poll();
+        count--;
+      }
+      // Neighbouring entries must have different counts.
+      if (count != stepCount) {
+        steps.put(time, count);
+        stepCount = count;
+      }
+    }
+    return new CoverageCounts(steps.build());
+  }
+
+  /**
+   * Returns the step function as a read-only sorted map, where a key maps to the count from that
+   * instant up to the next key.
+   */
+  NavigableMap<Instant, Integer> asMap() {
+    return Collections.unmodifiableNavigableMap(counts);
+  }
+
+  /** Returns the count at {@code time}. */
+  int countAt(Instant time) {
+    Map.Entry<Instant, Integer> floorEntry = counts.floorEntry(time);
+    return floorEntry == null ? 0 : floorEntry.getValue();
+  }
+
+  /** Returns the lowest count anywhere inside [start, end]. */
+  int minCountIn(Instant start, Instant end) {
+    int minCount = countAt(start);
+    for (int count : counts.subMap(start, false, end, false).values()) {
+      minCount = Math.min(minCount, count);
+    }
+    return minCount;
+  }
+
+  /**
+   * Adds {@code delta} to the count of every instant in [start, end]. Only the entries inside this
+   * range change, and only the entries at its two ends can become equal to their neighbours.
+   * Returns the stretches inside the range whose count is now {@code watchedCount}, for example the
+   * stretches that are no longer covered at all. A range with no duration covers nothing, so it
+   * changes nothing.
+   */
+  List<TimeRange> change(Instant start, Instant end, int delta, int watchedCount) {
+    if (!start.isBefore(end)) {
+      return Collections.emptyList();
+    }
+    splitAt(start);
+    splitAt(end);
+
+    List<TimeRange> watchedTimeRanges = new ArrayList<TimeRange>();
+    for (Map.Entry<Instant, Integer> entry : counts.subMap(start, true, end, false).entrySet()) {
+      int count = entry.getValue() + delta;
+      entry.setValue(count);
+      if (count == watchedCount) {
+        Instant stretchEnd = counts.higherKey(entry.getKey());
+        watchedTimeRanges.add(TimeRange.fromStartEnd(entry.getKey(), stretchEnd));
+      }
+    }
+
+    mergeAt(start);
+    mergeAt(end);
+    return watchedTimeRanges;
+  }
+
+  /** Makes sure an entry starts at {@code time}, with the count that applies there. */
+  private void splitAt(Instant time) {
+    if (!counts.containsKey(time)) {
+      counts.put(time, countAt(time));
+    }
+  }
+
+  /** Removes the entry at {@code time} if it has the same count as the one before it. */
+  private void mergeAt(Instant time) {
+    Map.Entry<Instant, Integer> lowerEntry = counts.lowerEntry(time);
+    int countBefore = lowerEntry == null ? 0 : lowerEntry.getValue();
+    if (counts.get(time) == countBefore) {
+      counts.remove(time);
+    }
+  }
+}
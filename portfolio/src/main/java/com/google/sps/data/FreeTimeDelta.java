@@ -0,0 +1,43 @@
+package com.google.sps.data;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * Models how the free time ranges of a CalendarEventsGroup changed after some events were added or
+ * removed. Only the time that changed is listed, so a copy of the free time ranges can be brought
+ * up to date with {@link #applyTo} instead of being built again.
+ */
+public final class FreeTimeDelta {
+  private final List<TimeRange> newlyFreeTimeRanges;
+  private final List<TimeRange> newlyBusyTimeRanges;
+
+  FreeTimeDelta(List<TimeRange> newlyFreeTimeRanges, List<TimeRange> newlyBusyTimeRanges) {
+    this.newlyFreeTimeRanges = ImmutableList.copyOf(newlyFreeTimeRanges);
+    this.newlyBusyTimeRanges = ImmutableList.copyOf(newlyBusyTimeRanges);
+  }
+
+  /** Returns the time that was busy before the change and is free now, sorted by start time. */
+  public List<TimeRange> getNewlyFreeTimeRanges() {
+    return newlyFreeTimeRanges;
+  }
+
+  /** Returns the time that was free before the change and is busy now, sorted by start time. */
+  public List<TimeRange> getNewlyBusyTimeRanges() {
+    return newlyBusyTimeRanges;
+  }
+
+  /** Returns true if the change did not free or take up any time. */
+  public boolean isEmpty() {
+    return newlyFreeTimeRanges.isEmpty() && newlyBusyTimeRanges.isEmpty();
+  }
+
+  /**
+   * Applies the change to {@code freeTimeRanges}, which held the free time ranges from before the
+   * change, so that it holds the free time ranges from after the change.
+   */
+  public void applyTo(TimeRangeGroup freeTimeRanges) {
+    freeTimeRanges.deleteAll(newlyBusyTimeRanges);
+    freeTimeRanges.addAll(newlyFreeTimeRanges);
+  }
+}
@@ -0,0 +1,120 @@
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Models a scheduling algorithm that picks the free time range for each task by its size instead of
+ * its start time. The free time ranges, or gaps, are kept in a tree keyed by duration, where each
+ * duration maps to the gaps of that duration sorted by start time, so the gap for a task is found
+ * with one O(log m) lookup. A task is placed at the start of its gap, and the rest of the gap is
+ * put back into the tree as a smaller gap.
+ *
+ * <p>Tasks are placed from longest to shortest, since placing large items first gives the tightest
+ * packing. A task that fits in no gap is not scheduled, and tasks are never split.
+ */
+abstract class GapSizeScheduler implements TaskScheduler {
+  private static final Comparator<ScheduledTask> sortByScheduledStartTimeAscending =
+      Comparator.comparing(ScheduledTask::getStartTime);
+
+  /**
+   * Schedules each task into the gap chosen by {@link #chooseGap}. Scheduling n tasks into m free
+   * time ranges takes O((n + m) log m) time, plus O(n log n) to sort the tasks and the result.
+   */
+  @Override
+  public Collection<ScheduledTask> schedule(
+      Collection<CalendarEvent> events,
+      Collection<Task> tasks,
+      Instant workHoursStartTime,
+      Instant workHoursEndTime) {
+    List<CalendarEvent> eventsList = new ArrayList<CalendarEvent>(events);
+    List<Task> tasksList = new ArrayList<Task>(tasks);
+
+    TaskQueue taskQueue = new TaskQueue(tasksList, getSchedulingAlgorithmType());
+
+    CalendarEventsGroup calendarEventsGroup =
+        new CalendarEventsGroup(eventsList, workHoursStartTime, workHoursEndTime);
+
+    NavigableMap<Long, NavigableSet<TimeRange>> gapsBySize =
+        new TreeMap<Long, NavigableSet<TimeRange>>();
+    calendarEventsGroup
+        .freeTimeRangesIterator()
+        .forEachRemaining(freeTimeRange -> addGap(gapsBySize, freeTimeRange));
+
+    List<ScheduledTask> scheduledTasks = new ArrayList<ScheduledTask>();
+
+    while (!taskQueue.isEmpty()) {
+      Task task = taskQueue.peek();
+      taskQueue.remove();
+
+      long durationSeconds = task.getDuration().getSeconds();
+      Optional<TimeRange> gap = chooseGap(gapsBySize, durationSeconds);
+      if (!gap.isPresent()) {
+        continue;
+      }
+
+      removeGap(gapsBySize, gap.get());
+      long taskEnd = gap.get().startEpochSecond() + durationSeconds;
+      if (taskEnd < gap.get().endEpochSecond()) {
+        addGap(gapsBySize, TimeRange.fromEpochSeconds(taskEnd, gap.get().endEpochSecond()));
+      }
+
+      scheduledTasks.add(
+          new ScheduledTask(
+              task, gap.get().start(), Optional.of(SchedulingCompleteness.COMPLETELY_SCHEDULED)));
+    }
+
+    Collections.sort(scheduledTasks, sortByScheduledStartTimeAscending);
+    return scheduledTasks;
+  }
+
+  /**
+   * Returns the gap to place a task of {@code durationSeconds} in, or an empty Optional if the task
+   * fits in no gap.
+   *
+   * @param gapsBySize: the free time ranges keyed by their duration in seconds. Every duration maps
+   *     to a non-empty set of the gaps of that duration, sorted by start time.
+   * @param durationSeconds: the duration of the task, in seconds.
+   */
+  abstract Optional<TimeRange> chooseGap(
+      NavigableMap<Long, NavigableSet<TimeRange>> gapsBySize, long durationSeconds);
+
+  /**
+   * Returns the earliest of the shortest gaps that last at least {@code durationSeconds}, in
+   * logarithmic time.
+   */
+  static Optional<TimeRange> findShortestGapOfAtLeast(
+      NavigableMap<Long, NavigableSet<TimeRange>> gapsBySize, long durationSeconds) {
+    Map.Entry<Long, NavigableSet<TimeRange>> shortestGaps =
+        gapsBySize.ceilingEntry(durationSeconds);
+    return shortestGaps == null ? Optional.empty() : Optional.of(shortestGaps.getValue().first());
+  }
+
+  private static void addGap(
+      NavigableMap<Long, NavigableSet<TimeRange>> gapsBySize, TimeRange gap) {
+    gapsBySize
+        .computeIfAbsent(
+            gap.durationSeconds(),
+            durationSeconds -> new TreeSet<TimeRange>(TimeRange.SORT_BY_START_TIME_ASCENDING))
+        .add(gap);
+  }
+
+  private static void removeGap(
+      NavigableMap<Long, NavigableSet<TimeRange>> gapsBySize, TimeRange gap) {
+    NavigableSet<TimeRange> gapsOfSameSize = gapsBySize.get(gap.durationSeconds());
+    gapsOfSameSize.remove(gap);
+    if (gapsOfSameSize.isEmpty()) {
+      gapsBySize.remove(gap.durationSeconds());
+    }
+  }
+}
@@ -7,13 +7,40 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 public class HighestPriorityFirstScheduler implements TaskScheduler {
   private static final Comparator<ScheduledTask> sortByScheduledStartTimeAscending =
       Comparator.comparing(ScheduledTask::getStartTime);
 
+  // Creates the TimeRangeGroup that holds the free time ranges while tasks are
+  // being scheduled. Every placed task deletes a range from this group.
+  private final Function<Iterable<TimeRange>, TimeRangeGroup> timeRangeGroupFactory;
+
+  /**
+   * Creates a scheduler that keeps the free time ranges in an AugmentedTreeTimeRangeGroup, which
+   * finds the first place a task fits in logarithmic time.
+   */
+  public HighestPriorityFirstScheduler() {
+    this(AugmentedTreeTimeRangeGroup::new);
+  }
+
+  /**
+   * Creates a scheduler that keeps the free time ranges in the TimeRangeGroup built by {@code
+   * timeRangeGroupFactory}, for example {@code ArrayListTimeRangeGroup::new}.
+   */
+  public HighestPriorityFirstScheduler(
+      Function<Iterable<TimeRange>, TimeRangeGroup> timeRangeGroupFactory) {
+    this.timeRangeGroupFactory = timeRangeGroupFactory;
+  }
+
   /**
    * This method schedules tasks from highest to lowest priority and shortest to longest duration.
+   *
+   * <p>Each task is placed with one first-fit query and one deletion on the free time ranges, and a
+   * task that fits nowhere drops the rest of its priority level at once. With the default
+   * AugmentedTreeTimeRangeGroup, scheduling n tasks into m free time ranges takes O((n + m) log m)
+   * time, plus O(n log n) to sort the tasks and the result.
    */
   public Collection<ScheduledTask> schedule(
       Collection<CalendarEvent> events,
@@ -28,83 +55,53 @@ public class HighestPriorityFirstScheduler implements TaskScheduler {
     CalendarEventsGroup calendarEventsGroup =
         new CalendarEventsGroup(eventsList, workHoursStartTime, workHoursEndTime);
 
-    List<TimeRange> availableTimes = calendarEventsGroup.getFreeTimeRanges();
-    TimeRangeGroup availableTimesGroup = new ArrayListTimeRangeGroup(availableTimes);
-    availableTimes = getAvailableTimeRangesList(availableTimesGroup);
+    TimeRangeGroup availableTimesGroup =
+        timeRangeGroupFactory.apply(calendarEventsGroup::freeTimeRangesIterator);
 
     List<ScheduledTask> scheduledTasks = new ArrayList<ScheduledTask>();
 
-    int availableTimesIndex = 0;
-
     Instant currentScheduleTime = workHoursStartTime;
 
     // The algorithm begins with the Task with the highest priority, and lowest duration. It
-    // then iterates through the availableTimes list trying to find a TimeRange that is
-    // large enough to fit the Task in and schedules it there. Once a Task is scheduled, the
-    // next Task from the PriorityQueue is retrieved until the PriorityQueue is empty and each
+    // then asks the availableTimesGroup for the first place at or after currentScheduleTime
+    // that is large enough to fit the Task in and schedules it there. Once a Task is scheduled,
+    // the next Task from the PriorityQueue is retrieved until the PriorityQueue is empty and each
     // Task that can be scheduled has been scheduled. If a Task has the same priority as the
-    // previously scheduled task then the scheduling algorithm tries to schedule the task starting
-    // at the TimeRange that the previous Task was scheduled in. If the Task has a different
-    // priority
-    // then the algorithm starts at the first available TimeRange.
-    while (availableTimesIndex < availableTimes.size() && !taskQueue.isEmpty()) {
-      TimeRange currentAvailableTimeRange = availableTimes.get(availableTimesIndex);
+    // previously scheduled task then the search starts where the previous Task ended. If the
+    // Task has a different priority then the search starts at the beginning of the work hours.
+    while (!taskQueue.isEmpty()) {
       Task task = taskQueue.peek();
 
-      if (currentAvailableTimeRange.start().isAfter(currentScheduleTime)) {
-        currentScheduleTime = currentAvailableTimeRange.start();
+      Optional<Instant> scheduledTime =
+          availableTimesGroup.findFirstFit(task.getDuration(), currentScheduleTime);
+
+      if (!scheduledTime.isPresent()) {
+        // If the task fits nowhere after currentScheduleTime, then we can remove all the
+        // remaining tasks of equal priority since they will all be longer in duration
+        // therefore, they will not be able to be scheduled either. The next priority starts
+        // its search at the beginning of the work hours again.
+        removeTasksWithPriority(taskQueue, task.getPriority());
+        currentScheduleTime = workHoursStartTime;
+        continue;
       }
 
-      boolean doesTaskFit =
-          !currentScheduleTime
-              .plusSeconds(task.getDuration().getSeconds())
-              .isAfter(currentAvailableTimeRange.end());
-
-      if (doesTaskFit) {
-        ScheduledTask scheduledTask =
-            new ScheduledTask(
-                task,
-                currentScheduleTime,
-                Optional.of(SchedulingCompleteness.COMPLETELY_SCHEDULED));
-        scheduledTasks.add(scheduledTask);
-
-        // Delete the TimeRange that has been scheduled over so that different priority tasks
-        // won't be scheduled over the same time.
-        availableTimesGroup.deleteTimeRange(
-            TimeRange.fromStartEnd(
-                scheduledTask.getStartTime(),
-                scheduledTask
-                    .getStartTime()
-                    .plusSeconds(scheduledTask.getTask().getDuration().getSeconds())));
-
-        // Push the currentScheduleTime back by the amount that was scheduled.
-        currentScheduleTime = currentScheduleTime.plusSeconds(task.getDuration().getSeconds());
-        taskQueue.remove();
-
-        // If the next task's priority is different from the task that was just scheduled,
-        // then reset the availableTimesIndex, currentScheduleTime, and make the loop
-        // grab a TimeRange. We go back to the first availableTimeRange in order to schedule
-        // more tasks towards the beginning of the availableTimes.
-        if (isNextTaskDifferentPriority(taskQueue, task)) {
-          availableTimesIndex = 0;
-          currentScheduleTime = workHoursStartTime;
-          availableTimes = getAvailableTimeRangesList(availableTimesGroup);
-        }
-        // If the task's priority is not different, then we can simply continue running the
-        // the loop without retrieving the next availableTimeRange since there might be
-        // some time left over towards the end of the current one.
-      } else if (availableTimesIndex == availableTimes.size() - 1) {
-        // If we've reached the end of the availableTimeRange group and we can't schedule a task,
-        // then we can remove all the remaining tasks of equal priority since they will all be
-        // longer in duration therefore, they will not be able to be scheduled either.
-        if (!taskQueue.isEmpty()) {
-          availableTimesIndex = 0;
-          removeTasksWithPriority(taskQueue, task.getPriority());
-        }
-      } else {
-        // Get the next TimeRange if the Task cannot be scheduled but we aren't at the final
-        // TimeRange.
-        availableTimesIndex++;
+      ScheduledTask scheduledTask =
+          new ScheduledTask(
+              task, scheduledTime.get(), Optional.of(SchedulingCompleteness.COMPLETELY_SCHEDULED));
+      scheduledTasks.add(scheduledTask);
+
+      // Delete the TimeRange that has been scheduled over so that different priority tasks
+      // won't be scheduled over the same time.
+      currentScheduleTime = scheduledTime.get().plusSeconds(task.getDuration().getSeconds());
+      availableTimesGroup.deleteTimeRange(
+          TimeRange.fromStartEnd(scheduledTime.get(), currentScheduleTime));
+      taskQueue.remove();
+
+      // If the next task's priority is different from the task that was just scheduled,
+      // then reset the currentScheduleTime in order to schedule more tasks towards the
+      // beginning of the available times.
+      if (isNextTaskDifferentPriority(taskQueue, task)) {
+        currentScheduleTime = workHoursStartTime;
       }
     }
 
@@ -124,12 +121,6 @@ public class HighestPriorityFirstScheduler implements TaskScheduler {
         && taskQueue.peek().getPriority().getPriority() != task.getPriority().getPriority();
   }
 
-  private List<TimeRange> getAvailableTimeRangesList(TimeRangeGroup updatedTimeRangeGroup) {
-    List<TimeRange> availableTimes = new ArrayList();
-    updatedTimeRangeGroup.iterator().forEachRemaining(availableTimes::add);
-    return availableTimes;
-  }
-
   /** Returns the scheduler's type, which is Highest Priority First. */
   public SchedulingAlgorithmType getSchedulingAlgorithmType() {
     return SchedulingAlgorithmType.HIGHEST_PRIORITY_FIRST;
@@ -16,7 +16,7 @@ public class LinkedListTimeRangeGroup extends AbstractListTimeRangeGroup impleme
    */
   public LinkedListTimeRangeGroup(Iterable<TimeRange> timeRanges) {
     allTimeRanges = new LinkedList<TimeRange>();
-    addAllTimeRanges(timeRanges);
+    addAll(timeRanges);
   }
 
   /**
@@ -0,0 +1,325 @@
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Models an implementation of the TimeRangeGroup model using two parallel arrays of primitive
+ * longs, which hold the start and end of every time range in epoch seconds. No TimeRange objects
+ * are kept in the group; they are only created when the iterator is used. Time ranges are kept
+ * sorted and pairwise disjoint, so every operation binary-searches for the affected ranges and
+ * shifts the rest of the arrays with System.arraycopy.
+ *
+ * <p>This group keeps time at the precision of a second, which is the precision of calendar events
+ * and scheduled tasks. Any sub-second part of an Instant is dropped.
+ */
+public class LongArrayTimeRangeGroup implements TimeRangeGroup {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  // starts[i] and ends[i] are the start and end of the i-th time range, in
+  // epoch seconds. Only the first size entries of both arrays are used.
+  private long[] starts;
+  private long[] ends;
+  private int size;
+
+  /** Adds all the input time ranges to the arrays of all time ranges. */
+  public LongArrayTimeRangeGroup(Iterable<TimeRange> timeRanges) {
+    starts = new long[DEFAULT_CAPACITY];
+    ends = new long[DEFAULT_CAPACITY];
+    size = 0;
+    addAll(timeRanges);
+  }
+
+  /**
+   * Adds a new time range to the arrays. All existing time ranges that overlap with the new time
+   * range are replaced by a single merged time range.
+   */
+  @Override
+  public void addTimeRange(TimeRange timeRange) {
+    long newRangeStart = timeRange.startEpochSecond();
+    long newRangeEnd = timeRange.endEpochSecond();
+
+    // The ranges in [firstOverlapping, lastOverlapping] all overlap with the new range.
+    // Touching ranges, such as [8 - 8:30] and [8:30 - 9], are considered overlapping.
+    int firstOverlapping = firstIndexWithEndAtOrAfter(newRangeStart);
+    int lastOverlapping = lastIndexWithStartAtOrBefore(newRangeEnd);
+
+    if (firstOverlapping > lastOverlapping) {
+      insertAt(firstOverlapping, newRangeStart, newRangeEnd);
+      return;
+    }
+
+    starts[firstOverlapping] = Math.min(newRangeStart, starts[firstOverlapping]);
+    ends[firstOverlapping] = Math.max(newRangeEnd, ends[lastOverlapping]);
+    removeRange(firstOverlapping + 1, lastOverlapping + 1);
+  }
+
+  /**
+   * Checks if a time range exists in the collection. For example, if [3:00 - 4:00] is in the
+   * collection, [3:00 - 3:30] is considered to exist as a time range in the collection. Only the
+   * last range starting at or before the target range's start can contain it.
+   */
+  @Override
+  public boolean hasTimeRange(TimeRange timeRangeToCheck) {
+    long rangeToCheckStart = timeRangeToCheck.startEpochSecond();
+    long rangeToCheckEnd = timeRangeToCheck.endEpochSecond();
+
+    int index = lastIndexWithStartAtOrBefore(rangeToCheckStart);
+    if (index < 0) {
+      return false;
+    }
+
+    // A range with no duration cannot contain anything.
+    return starts[index] < ends[index] && rangeToCheckEnd <= ends[index];
+  }
+
+  /**
+   * Delete a time range from the arrays. The ranges overlapping with the range to delete are
+   * replaced by at most two ranges: the part of the first one before the deleted range, and the
+   * part of the last one after the deleted range.
+   *
+   * <p>For example, if the arrays contain [3:00 - 4:00] and [5:00 - 6:00], deleting [3:15 - 3:30]
+   * will result in [3 - 3:15] and [3:30 - 4] as new time ranges.
+   *
+   * <p>Another example for deleting overlapping time ranges: if [3 - 4] and [5 - 6] are in the
+   * original arrays, deleting [3:30 - 5:30] will result in two new ranges: [3 - 3:30] and [5:30 -
+   * 6].
+   */
+  @Override
+  public void deleteTimeRange(TimeRange timeRangeToDelete) {
+    long toDeleteRangeStart = timeRangeToDelete.startEpochSecond();
+    long toDeleteRangeEnd = timeRangeToDelete.endEpochSecond();
+
+    // Ranges that only touch the range to delete are left untouched.
+    int firstOverlapping = firstIndexWithEndAtOrAfter(toDeleteRangeStart + 1);
+    int lastOverlapping = lastIndexWithStartAtOrBefore(toDeleteRangeEnd - 1);
+    if (firstOverlapping > lastOverlapping) {
+      return;
+    }
+
+    long firstOverlappingStart = starts[firstOverlapping];
+    long lastOverlappingEnd = ends[lastOverlapping];
+    removeRange(firstOverlapping, lastOverlapping + 1);
+
+    // Construct one or two new time ranges after the deletion.
+    int insertionIndex = firstOverlapping;
+    if (firstOverlappingStart < toDeleteRangeStart) {
+      insertAt(insertionIndex, firstOverlappingStart, toDeleteRangeStart);
+      insertionIndex++;
+    }
+    if (lastOverlappingEnd > toDeleteRangeEnd) {
+      insertAt(insertionIndex, toDeleteRangeEnd, lastOverlappingEnd);
+    }
+  }
+
+  /**
+   * Adds all the input time ranges. They are sorted once and merged with the existing ranges into
+   * new arrays in a single pass.
+   */
+  @Override
+  public void addAll(Iterable<TimeRange> timeRanges) {
+    List<TimeRange> sortedTimeRanges = SortedTimeRanges.sortByStart(timeRanges);
+    int capacity = Math.max(DEFAULT_CAPACITY, size + sortedTimeRanges.size());
+    long[] newStarts = new long[capacity];
+    long[] newEnds = new long[capacity];
+    int newSize = 0;
+
+    int index = 0;
+    int sortedIndex = 0;
+    while (index < size || sortedIndex < sortedTimeRanges.size()) {
+      // Take whichever of the two next ranges starts first.
+      long nextStart;
+      long nextEnd;
+      if (sortedIndex == sortedTimeRanges.size()
+          || (index < size
+              && starts[index] <= sortedTimeRanges.get(sortedIndex).startEpochSecond())) {
+        nextStart = starts[index];
+        nextEnd = ends[index];
+        index++;
+      } else {
+        TimeRange timeRange = sortedTimeRanges.get(sortedIndex);
+        nextStart = timeRange.startEpochSecond();
+        nextEnd = timeRange.endEpochSecond();
+        sortedIndex++;
+      }
+
+      // Overlapping and touching ranges are merged into the last range.
+      if (newSize > 0 && nextStart <= newEnds[newSize - 1]) {
+        newEnds[newSize - 1] = Math.max(newEnds[newSize - 1], nextEnd);
+      } else {
+        newStarts[newSize] = nextStart;
+        newEnds[newSize] = nextEnd;
+        newSize++;
+      }
+    }
+
+    starts = newStarts;
+    ends = newEnds;
+    size = newSize;
+  }
+
+  /**
+   * Deletes all the input time ranges. They are sorted once and cut out of the existing ranges into
+   * new arrays in a single pass.
+   */
+  @Override
+  public void deleteAll(Iterable<TimeRange> timeRanges) {
+    List<TimeRange> sortedTimeRanges =
+        SortedTimeRanges.mergeOverlapping(SortedTimeRanges.sortByStart(timeRanges));
+
+    // Each deletion can split at most one range in two.
+    int capacity = Math.max(DEFAULT_CAPACITY, size + sortedTimeRanges.size());
+    long[] newStarts = new long[capacity];
+    long[] newEnds = new long[capacity];
+    int newSize = 0;
+
+    int deletionIndex = 0;
+    for (int index = 0; index < size; index++) {
+      long remainingStart = starts[index];
+      long remainingEnd = ends[index];
+
+      // Deletions ending before the remaining part of this range cannot affect any later range.
+      while (deletionIndex < sortedTimeRanges.size()
+          && sortedTimeRanges.get(deletionIndex).endEpochSecond() <= remainingStart) {
+        deletionIndex++;
+      }
+
+      for (int i = deletionIndex; i < sortedTimeRanges.size(); i++) {
+        long deletionStart = sortedTimeRanges.get(i).startEpochSecond();
+        long deletionEnd = sortedTimeRanges.get(i).endEpochSecond();
+        if (deletionStart >= remainingEnd) {
+          break;
+        }
+        if (deletionStart > remainingStart) {
+          newStarts[newSize] = remainingStart;
+          newEnds[newSize] = deletionStart;
+          newSize++;
+        }
+        remainingStart = Math.max(remainingStart, deletionEnd);
+        if (remainingStart >= remainingEnd) {
+          break;
+        }
+      }
+
+      if (remainingStart < remainingEnd) {
+        newStarts[newSize] = remainingStart;
+        newEnds[newSize] = remainingEnd;
+        newSize++;
+      }
+    }
+
+    starts = newStarts;
+    ends = newEnds;
+    size = newSize;
+  }
+
+  /**
+   * Returns an iterator for all time ranges, in ascending order of their start times. TimeRange
+   * objects are created one at a time as the iterator advances.
+   */
+  @Override
+  public Iterator<TimeRange> iterator() {
+    return iteratorFromIndex(0);
+  }
+
+  /**
+   * Returns an iterator for the time ranges that end after {@code from}. The first of them is found
+   * by binary search. See {@link TimeRangeGroup#iteratorFrom}.
+   */
+  @Override
+  public Iterator<TimeRange> iteratorFrom(Instant from) {
+    return new ClippedTimeRangeIterator(
+        iteratorFromIndex(firstIndexWithEndAtOrAfter(from.getEpochSecond())), from, Instant.MAX);
+  }
+
+  /** Returns an iterator for the time ranges stored from {@code startIndex} onwards. */
+  private Iterator<TimeRange> iteratorFromIndex(int startIndex) {
+    return new Iterator<TimeRange>() {
+      private int index = startIndex;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public TimeRange next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        TimeRange timeRange = toTimeRange(index);
+        index++;
+        return timeRange;
+      }
+    };
+  }
+
+  /** Creates the TimeRange object for the range stored at {@code index}. */
+  private TimeRange toTimeRange(int index) {
+    return TimeRange.fromEpochSeconds(starts[index], ends[index]);
+  }
+
+  /**
+   * Returns the index of the first range whose end is at or after {@code time}, or size if there is
+   * no such range. Because the ranges are disjoint, the ends are sorted as well as the starts.
+   */
+  private int firstIndexWithEndAtOrAfter(long time) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (ends[middle] < time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Returns the index of the last range whose start is at or before {@code time}, or -1 if there is
+   * no such range.
+   */
+  private int lastIndexWithStartAtOrBefore(long time) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (starts[middle] <= time) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low - 1;
+  }
+
+  /** Inserts a range at {@code index}, shifting all later ranges one position to the right. */
+  private void insertAt(int index, long start, long end) {
+    if (size == starts.length) {
+      int newCapacity = Math.max(DEFAULT_CAPACITY, size * 2);
+      starts = Arrays.copyOf(starts, newCapacity);
+      ends = Arrays.copyOf(ends, newCapacity);
+    }
+    System.arraycopy(starts, index, starts, index + 1, size - index);
+    System.arraycopy(ends, index, ends, index + 1, size - index);
+    starts[index] = start;
+    ends[index] = end;
+    size++;
+  }
+
+  /** Removes the ranges from {@code fromIndex}, inclusive, to {@code toIndex}, exclusive. */
+  private void removeRange(int fromIndex, int toIndex) {
+    int removedCount = toIndex - fromIndex;
+    if (removedCount <= 0) {
+      return;
+    }
+    System.arraycopy(starts, toIndex, starts, fromIndex, size - toIndex);
+    System.arraycopy(ends, toIndex, ends, fromIndex, size - toIndex);
+    size -= removedCount;
+  }
+}
@@ -3,7 +3,9 @@ package com.google.sps.data;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +15,11 @@ public class LongestTaskFirstScheduler implements TaskScheduler {
   /**
    * Schedules the tasks so that the longest tasks are scheduled to the first possible free time
    * range of the day. This approach tries to prioritize long tasks so that they are scheduled.
+   *
+   * <p>Every task fills the free time from the front, so the free time is used up in order and a
+   * single cursor over the free time ranges is enough: a task starts where the previous task
+   * stopped. While splitting, each segment is only recorded as its start, length and task; the
+   * segment names and ScheduledTask objects are made once all tasks are split.
    */
   public Collection<ScheduledTask> schedule(
       Collection<CalendarEvent> events,
@@ -28,20 +35,27 @@ public class LongestTaskFirstScheduler implements TaskScheduler {
     CalendarEventsGroup calendarEventsGroup =
         new CalendarEventsGroup(eventsList, workHoursStartTime, workHoursEndTime);
 
-    // Create a TimeRangeGroup class for the free time ranges.
-    List<TimeRange> availableTimes = calendarEventsGroup.getFreeTimeRanges();
-    TimeRangeGroup availableTimesGroup = new ArrayListTimeRangeGroup(availableTimes);
-
-    List<ScheduledTask> scheduledTasks = new ArrayList<ScheduledTask>();
+    FreeTimeCursor freeTime = new FreeTimeCursor(calendarEventsGroup.freeTimeRangesIterator());
+    TaskSegments segments = new TaskSegments(tasksList.size());
+    List<Task> sortedTasks = new ArrayList<Task>(tasksList.size());
+    boolean[] isCompletelyScheduled = new boolean[tasksList.size()];
 
     while (!taskQueue.isEmpty()) {
       Task task = taskQueue.peek();
-      List<ScheduledTask> currentScheduledTasks = scheduleOneTask(task, availableTimesGroup);
-      currentScheduledTasks.forEach(scheduledTasks::add);
       taskQueue.remove();
+      int taskIndex = sortedTasks.size();
+      sortedTasks.add(task);
+
+      long remainingSeconds = task.getDuration().getSeconds();
+      while (remainingSeconds > 0 && freeTime.hasTime()) {
+        long segmentSeconds = freeTime.take(remainingSeconds);
+        segments.add(freeTime.lastTakenStart(), segmentSeconds, taskIndex);
+        remainingSeconds -= segmentSeconds;
+      }
+      isCompletelyScheduled[taskIndex] = remainingSeconds == 0;
     }
 
-    return scheduledTasks;
+    return segments.toScheduledTasks(sortedTasks, isCompletelyScheduled);
   }
 
   /** Returns the scheduler's type, which is Longest Task First. */
@@ -49,127 +63,118 @@ public class LongestTaskFirstScheduler implements TaskScheduler {
     return SchedulingAlgorithmType.LONGEST_TASK_FIRST;
   }
 
-  /** Constructs a list for the updated available time ranges after deletion. */
-  private List<TimeRange> constructAvailableTimeRanges(TimeRangeGroup updatedTimeRangeGroup) {
-    List<TimeRange> updatedAvailableTimes = new ArrayList();
-    updatedTimeRangeGroup.iterator().forEachRemaining(updatedAvailableTimes::add);
-    return updatedAvailableTimes;
-  }
-
   /**
-   * Tries to schedule for a single task by iterating through the currently available time ranges.
-   * Keeps splitting up the task to schedule the currently avaible free time ranges until all of the
-   * task is scheduled across the different time ranges.
-   *
-   * <p>When this method is called, the task may or may not be complete scheduled. The task may be
-   * scheduled into one entire free time range, or the task could be split into multiple time
-   * ranges. When a task is split, new tasks are created to model the segment of the current task
-   * and these new tasks are added to the list of all newly scheduled tasks.
-   *
-   * @return a list of newly scheduled tasks. If this list is empty, then it means the current task
-   *     cannot be scheduled at all.
+   * Walks over the free time ranges in order and hands out the free time from the front, in whole
+   * seconds like TimeRange. Only the part of the current free time range that is still free is
+   * kept, so no time range is copied or deleted.
    */
-  private List<ScheduledTask> scheduleOneTask(Task task, TimeRangeGroup availableTimesGroup) {
-    List<TimeRange> currentAvailableTimes = constructAvailableTimeRanges(availableTimesGroup);
-    List<ScheduledTask> newScheduledTasks = new ArrayList<ScheduledTask>();
-
-    // If there is no available time ranges anymore,
-    // return the empty list.
-    if (currentAvailableTimes.isEmpty()) {
-      return newScheduledTasks;
+  private static final class FreeTimeCursor {
+    private final Iterator<TimeRange> freeTimeRanges;
+    private long currentStart;
+    private long currentEnd;
+    private long lastTakenStart;
+
+    private FreeTimeCursor(Iterator<TimeRange> freeTimeRanges) {
+      this.freeTimeRanges = freeTimeRanges;
     }
 
-    Duration taskDuration = task.getDuration();
-    int taskSegmentCount = 1;
-
-    for (TimeRange currentFreeTimeRange : currentAvailableTimes) {
-      // If the task has been entirely scheduled, return the list of new scheduled tasks.
-      if (taskDuration.getSeconds() == 0) {
-        return newScheduledTasks;
-      }
-
-      Instant scheduledTime = currentFreeTimeRange.start();
-
-      // Reconstruct the task segment's name.
-      String taskName = task.getName() + " (Part " + taskSegmentCount + ")";
-
-      String taskDescription = task.getDescription().orElse("");
-      TaskPriority taskPriority = task.getPriority();
-
-      // If task's current duration is longer than the free time's,
-      // this means the entirety of the free time range is scheduled to this task.
-      if (taskDuration.compareTo(currentFreeTimeRange.duration()) > 0) {
-        // Constructs a new task object with the current free time range's duration.
-        Task taskWithActualScheduledDuration =
-            new Task(taskName, taskDescription, currentFreeTimeRange.duration(), taskPriority);
-        TimeRange scheduledTaskTimeRange =
-            scheduleTaskSegment(
-                taskWithActualScheduledDuration,
-                scheduledTime,
-                newScheduledTasks,
-                availableTimesGroup);
-        taskDuration = taskDuration.minus(scheduledTaskTimeRange.duration());
-      } else {
-        // Otherwise, only part of the free time range is needed to schedule this task.
-        // In this case, if the count of segment is 1, then the task can be scheduled in its
-        // entirety. Retrieve the task's original name without the "(Part 1)" suffix.
-        if (taskSegmentCount == 1) {
-          taskName = task.getName();
-        }
-
-        Task taskWithActualScheduledDuration =
-            new Task(taskName, taskDescription, taskDuration, taskPriority);
-        TimeRange scheduledTaskTimeRange =
-            scheduleTaskSegment(
-                taskWithActualScheduledDuration,
-                scheduledTime,
-                newScheduledTasks,
-                availableTimesGroup);
-
-        // This is the last free time range that is needed to complete the scheduling
-        // for the current task, so return the list of new scheduled tasks here.
-        // These new scheduled task segments are marked with "true" for completeness tag,
-        // and these tags do not need to be changed.
-        return newScheduledTasks;
+    /** Returns whether any free time is left, moving to the next free time range if needed. */
+    private boolean hasTime() {
+      while (currentStart == currentEnd && freeTimeRanges.hasNext()) {
+        TimeRange timeRange = freeTimeRanges.next();
+        currentStart = timeRange.startEpochSecond();
+        currentEnd = timeRange.endEpochSecond();
       }
-      taskSegmentCount++;
+      return currentStart < currentEnd;
     }
 
-    // If iterating through all current time ranges finishes, and the task still isn't
-    // completely scheduled, then this task is only partially scheduled.
-    // Go through all the segments for this task, and set their completeness to partially scheduled.
-    Optional<SchedulingCompleteness> schedulingCompleteness =
-        Optional.of(SchedulingCompleteness.PARTIALLY_SCHEDULED);
+    /**
+     * Takes up to {@code seconds} from the front of the current free time range and returns the
+     * number of seconds taken. Must only be called after hasTime returned true.
+     */
+    private long take(long seconds) {
+      long takenSeconds = Math.min(seconds, currentEnd - currentStart);
+      lastTakenStart = currentStart;
+      currentStart += takenSeconds;
+      return takenSeconds;
+    }
 
-    for (ScheduledTask taskSegment : newScheduledTasks) {
-      taskSegment.setCompleteness(schedulingCompleteness);
+    /** Returns the start, in epoch seconds, of the time taken by the last call to take. */
+    private long lastTakenStart() {
+      return lastTakenStart;
     }
-    return newScheduledTasks;
   }
 
   /**
-   * Schedules a task segment based on a scheduled time. Deletes the scheduled time range from
-   * availabe time range group.
+   * Records the scheduled segments of all tasks as primitive (start, length, task index) entries in
+   * growing arrays, in the order they were scheduled.
    */
-  private TimeRange scheduleTaskSegment(
-      Task task,
-      Instant scheduledTime,
-      List<ScheduledTask> scheduledTasks,
-      TimeRangeGroup availableTimesGroup) {
-    Duration taskDuration = task.getDuration();
-
-    Optional<SchedulingCompleteness> schedulingCompleteness =
-        Optional.of(SchedulingCompleteness.COMPLETELY_SCHEDULED);
-
-    // Assumes this task can be scheduled for now.
-    // If not, the true tag will be overwritten at the end of the scheduleOneTask method.
-    ScheduledTask scheduledTask = new ScheduledTask(task, scheduledTime, schedulingCompleteness);
-    scheduledTasks.add(scheduledTask);
-
-    Instant scheduledTaskEndTime = scheduledTime.plus(taskDuration);
-    TimeRange scheduledTaskTimeRange = TimeRange.fromStartEnd(scheduledTime, scheduledTaskEndTime);
-    availableTimesGroup.deleteTimeRange(scheduledTaskTimeRange);
-
-    return scheduledTaskTimeRange;
+  private static final class TaskSegments {
+    private long[] startSeconds;
+    private long[] lengthSeconds;
+    private int[] taskIndexes;
+    private int size;
+
+    private TaskSegments(int initialCapacity) {
+      int capacity = Math.max(initialCapacity, 1);
+      this.startSeconds = new long[capacity];
+      this.lengthSeconds = new long[capacity];
+      this.taskIndexes = new int[capacity];
+    }
+
+    private void add(long start, long length, int taskIndex) {
+      if (size == taskIndexes.length) {
+        int capacity = size * 2;
+        startSeconds = Arrays.copyOf(startSeconds, capacity);
+        lengthSeconds = Arrays.copyOf(lengthSeconds, capacity);
+        taskIndexes = Arrays.copyOf(taskIndexes, capacity);
+      }
+      startSeconds[size] = start;
+      lengthSeconds[size] = length;
+      taskIndexes[size] = taskIndex;
+      size++;
+    }
+
+    /**
+     * Makes the scheduled tasks of all segments. A task that is completely scheduled in one segment
+     * keeps its name; otherwise each segment is named "name (Part k)". The segments of a task that
+     * is not completely scheduled are all marked as partially scheduled.
+     */
+    private List<ScheduledTask> toScheduledTasks(
+        List<Task> tasks, boolean[] isCompletelyScheduled) {
+      int[] segmentCounts = new int[tasks.size()];
+      for (int segment = 0; segment < size; segment++) {
+        segmentCounts[taskIndexes[segment]]++;
+      }
+
+      List<ScheduledTask> scheduledTasks = new ArrayList<ScheduledTask>(size);
+      int[] segmentNumbers = new int[tasks.size()];
+      for (int segment = 0; segment < size; segment++) {
+        int taskIndex = taskIndexes[segment];
+        Task task = tasks.get(taskIndex);
+        int segmentNumber = ++segmentNumbers[taskIndex];
+
+        String taskName = task.getName();
+        if (!isCompletelyScheduled[taskIndex] || segmentCounts[taskIndex] > 1) {
+          taskName += " (Part " + segmentNumber + ")";
+        }
+        Task taskSegment =
+            new Task(
+                taskName,
+                task.getDescription().orElse(""),
+                Duration.ofSeconds(lengthSeconds[segment]),
+                task.getPriority());
+        SchedulingCompleteness completeness =
+            isCompletelyScheduled[taskIndex]
+                ? SchedulingCompleteness.COMPLETELY_SCHEDULED
+                : SchedulingCompleteness.PARTIALLY_SCHEDULED;
+        scheduledTasks.add(
+            new ScheduledTask(
+                taskSegment,
+                Instant.ofEpochSecond(startSeconds[segment]),
+                Optional.of(completeness)));
+      }
+      return scheduledTasks;
+    }
   }
 }
@@ -0,0 +1,198 @@
+package com.google.sps.data;
+
+import com.google.common.collect.ImmutableMap;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds the free time ranges of a user over many days, for example to plan two weeks of work. The
+ * working hours of each day come from a weekly template, and days that are not in the template are
+ * days off.
+ *
+ * <p>Every event is first handed to the days whose working hours it overlaps. The days are then
+ * independent of each other, so the free time ranges of each day are found with its own
+ * CalendarEventsGroup on a ForkJoinPool, and the results of all days are put into one
+ * TimeRangeGroup.
+ */
+public class MultiDayAvailability {
+
+  /** The working hours of one day, in the time zone of the user. */
+  public static final class WorkingHours {
+    private final LocalTime startTime;
+    private final LocalTime endTime;
+
+    /** Working hours must start and end on the same day. */
+    public WorkingHours(LocalTime startTime, LocalTime endTime) {
+      if (startTime == null) {
+        throw new IllegalArgumentException("Working hours need a start time");
+      }
+      if (endTime == null) {
+        throw new IllegalArgumentException("Working hours need an end time");
+      }
+      if (startTime.isAfter(endTime)) {
+        throw new IllegalArgumentException("Start time cannot be after end time");
+      }
+      this.startTime = startTime;
+      this.endTime = endTime;
+    }
+
+    public LocalTime getStartTime() {
+      return startTime;
+    }
+
+    public LocalTime getEndTime() {
+      return endTime;
+    }
+  }
+
+  private final Map<DayOfWeek, WorkingHours> workingHoursTemplate;
+  private final ZoneId zone;
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a builder that computes the days on the common ForkJoinPool.
+   *
+   * @param workingHoursTemplate: the working hours of each day of the week.
+   * @param zone: the time zone the working hours are in.
+   */
+  public MultiDayAvailability(Map<DayOfWeek, WorkingHours> workingHoursTemplate, ZoneId zone) {
+    this(workingHoursTemplate, zone, ForkJoinPool.commonPool());
+  }
+
+  /** Creates a builder that computes the days on {@code pool}. */
+  public MultiDayAvailability(
+      Map<DayOfWeek, WorkingHours> workingHoursTemplate, ZoneId zone, ForkJoinPool pool) {
+    if (workingHoursTemplate == null) {
+      throw new IllegalArgumentException("Working hours template cannot be null");
+    }
+    if (zone == null) {
+      throw new IllegalArgumentException("Time zone cannot be null");
+    }
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool cannot be null");
+    }
+    this.workingHoursTemplate = ImmutableMap.copyOf(workingHoursTemplate);
+    this.zone = zone;
+    this.pool = pool;
+  }
+
+  /**
+   * Returns the free time ranges inside the working hours of every day from {@code firstDay} to
+   * {@code lastDay}, both included.
+   */
+  public TimeRangeGroup findFreeTimeRanges(
+      Collection<CalendarEvent> events, LocalDate firstDay, LocalDate lastDay) {
+    if (events == null) {
+      throw new IllegalArgumentException("Events cannot be null");
+    }
+    if (firstDay.isAfter(lastDay)) {
+      throw new IllegalArgumentException("First day cannot be after last day");
+    }
+
+    List<TimeRange> workingDays = new ArrayList<TimeRange>();
+    for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+      WorkingHours workingHours = workingHoursTemplate.get(day.getDayOfWeek());
+      if (workingHours != null) {
+        workingDays.add(
+            TimeRange.fromStartEnd(
+                day.atTime(workingHours.getStartTime()).atZone(zone).toInstant(),
+                day.atTime(workingHours.getEndTime()).atZone(zone).toInstant()));
+      }
+    }
+
+    List<List<CalendarEvent>> eventsByDay = splitEventsByDay(events, workingDays);
+    List<TimeRange> freeTimeRanges =
+        pool.invoke(new FreeTimeTask(workingDays, eventsByDay, 0, workingDays.size()));
+    return new TreeMapTimeRangeGroup(freeTimeRanges);
+  }
+
+  /**
+   * Hands every event to each working day it overlaps. The working days are sorted and disjoint, so
+   * the first one an event can overlap is found with a binary search.
+   */
+  private static List<List<CalendarEvent>> splitEventsByDay(
+      Collection<CalendarEvent> events, List<TimeRange> workingDays) {
+    List<List<CalendarEvent>> eventsByDay = new ArrayList<List<CalendarEvent>>();
+    for (int day = 0; day < workingDays.size(); day++) {
+      eventsByDay.add(new ArrayList<CalendarEvent>());
+    }
+
+    for (CalendarEvent event : events) {
+      long eventStart = event.getStartTime().getEpochSecond();
+      long eventEnd = event.getEndTime().getEpochSecond();
+      for (int day = firstDayEndingAfter(workingDays, eventStart);
+          day < workingDays.size() && workingDays.get(day).startEpochSecond() < eventEnd;
+          day++) {
+        eventsByDay.get(day).add(event);
+      }
+    }
+    return eventsByDay;
+  }
+
+  private static int firstDayEndingAfter(List<TimeRange> workingDays, long epochSecond) {
+    int low = 0;
+    int high = workingDays.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (workingDays.get(middle).endEpochSecond() > epochSecond) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Finds the free time ranges of the working days from {@code fromDay} up to {@code toDay} by
+   * splitting them in half until each task has one day, and joins the results in order.
+   */
+  private static final class FreeTimeTask extends RecursiveTask<List<TimeRange>> {
+    private final List<TimeRange> workingDays;
+    private final List<List<CalendarEvent>> eventsByDay;
+    private final int fromDay;
+    private final int toDay;
+
+    private FreeTimeTask(
+        List<TimeRange> workingDays,
+        List<List<CalendarEvent>> eventsByDay,
+        int fromDay,
+        int toDay) {
+      this.workingDays = workingDays;
+      this.eventsByDay = eventsByDay;
+      this.fromDay = fromDay;
+      this.toDay = toDay;
+    }
+
+    @Override
+    protected List<TimeRange> compute() {
+      if (toDay - fromDay <= 1) {
+        if (fromDay == toDay) {
+          return new ArrayList<TimeRange>();
+        }
+        TimeRange workingDay = workingDays.get(fromDay);
+        Instant dayStart = workingDay.start();
+        Instant dayEnd = workingDay.end();
+        return new CalendarEventsGroup(eventsByDay.get(fromDay), dayStart, dayEnd)
+            .getFreeTimeRanges();
+      }
+
+      int middleDay = (fromDay + toDay) >>> 1;
+      FreeTimeTask laterDays = new FreeTimeTask(workingDays, eventsByDay, middleDay, toDay);
+      laterDays.fork();
+      List<TimeRange> freeTimeRanges =
+          new FreeTimeTask(workingDays, eventsByDay, fromDay, middleDay).compute();
+      freeTimeRanges.addAll(laterDays.join());
+      return freeTimeRanges;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Models an immutable group of disjoint time ranges. Adding or deleting a time range does not
+ * change the group; instead it returns a new group that shares every part of the balanced tree it
+ * did not change with the old one, so each new version costs O(log n) time and memory.
+ *
+ * <p>This makes it cheap to keep earlier versions around. For example, a what-if scheduler can
+ * build the free time ranges once, try a set of tasks against them, and go back to the original
+ * group by simply keeping a reference to it, without copying or rebuilding any time ranges.
+ */
+public final class PersistentTimeRangeGroup implements Iterable<TimeRange> {
+  private static final PersistentTimeRangeGroup EMPTY = new PersistentTimeRangeGroup(null);
+
+  private final TimeRangeTree.Node root;
+
+  private PersistentTimeRangeGroup(TimeRangeTree.Node root) {
+    this.root = root;
+  }
+
+  /** Returns a group with no time ranges. */
+  public static PersistentTimeRangeGroup empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns a group with all the input time ranges. The time ranges are sorted and merged once and
+   * the tree is built from them in linear time.
+   */
+  public static PersistentTimeRangeGroup of(Iterable<TimeRange> timeRanges) {
+    return new PersistentTimeRangeGroup(
+        TimeRangeTree.buildFromSorted(
+            SortedTimeRanges.union(
+                Collections.emptyList(), SortedTimeRanges.sortByStart(timeRanges))));
+  }
+
+  /** Returns a group with the ranges of the tree that {@code root} points to. */
+  static PersistentTimeRangeGroup fromTree(TimeRangeTree.Node root) {
+    return root == null ? EMPTY : new PersistentTimeRangeGroup(root);
+  }
+
+  /** Returns the root of the tree of this group, which is never modified. */
+  TimeRangeTree.Node getTree() {
+    return root;
+  }
+
+  /**
+   * Returns a new group with {@code timeRange} added. Overlapping time ranges are merged, just like
+   * in TimeRangeGroup#addTimeRange. This group does not change.
+   */
+  public PersistentTimeRangeGroup withTimeRange(TimeRange timeRange) {
+    return fromTree(TimeRangeTree.addTimeRange(root, timeRange));
+  }
+
+  /**
+   * Returns a new group with {@code timeRangeToDelete} deleted, just like in
+   * TimeRangeGroup#deleteTimeRange. This group does not change.
+   */
+  public PersistentTimeRangeGroup withoutTimeRange(TimeRange timeRangeToDelete) {
+    return fromTree(TimeRangeTree.deleteTimeRange(root, timeRangeToDelete));
+  }
+
+  /**
+   * Checks if a time range exists in the group. For example, if [3:00 - 4:00] is in the group,
+   * [3:00 - 3:30] is considered to exist as a time range in the group.
+   */
+  public boolean hasTimeRange(TimeRange timeRangeToCheck) {
+    return TimeRangeTree.hasTimeRange(root, timeRangeToCheck);
+  }
+
+  /** Returns true if the group has no time ranges. */
+  public boolean isEmpty() {
+    return root == null;
+  }
+
+  /**
+   * Finds the earliest place where {@code duration} fits, in logarithmic time. See {@link
+   * TimeRangeGroup#findFirstFit}.
+   */
+  public Optional<Instant> findFirstFit(Duration duration, Instant notBefore) {
+    return Optional.ofNullable(TimeRangeTree.findFirstFit(root, duration, notBefore));
+  }
+
+  /**
+   * Returns a mutable AugmentedTreeTimeRangeGroup that starts from this group, in constant time.
+   */
+  public AugmentedTreeTimeRangeGroup toMutableGroup() {
+    AugmentedTreeTimeRangeGroup group = new AugmentedTreeTimeRangeGroup(Collections.emptyList());
+    group.restore(this);
+    return group;
+  }
+
+  /**
+   * Returns an iterator for the time ranges that end after {@code from}. See {@link
+   * TimeRangeGroup#iteratorFrom}.
+   */
+  public Iterator<TimeRange> iteratorFrom(Instant from) {
+    return new ClippedTimeRangeIterator(TimeRangeTree.iteratorFrom(root, from), from, Instant.MAX);
+  }
+
+  /** Returns an iterator for all time ranges, in ascending order of their start times. */
+  @Override
+  public Iterator<TimeRange> iterator() {
+    return TimeRangeTree.iterator(root);
+  }
+}
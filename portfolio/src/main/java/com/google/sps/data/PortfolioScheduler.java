@@ -0,0 +1,185 @@
+package com.google.sps.data;
+
+import com.google.common.collect.ImmutableList;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class models a scheduling algorithm that runs several other scheduling algorithms at the
+ * same time and returns the best of their schedules, so the client does not have to guess which
+ * algorithm works best for a given day.
+ *
+ * <p>Every algorithm is submitted to a ForkJoinPool with the same immutable copies of the events
+ * and tasks, so the schedules are made in parallel and the time taken is close to that of the
+ * slowest algorithm. The schedules are then compared by their {@link Score}. An algorithm that
+ * fails is left out of the comparison, so one failing algorithm does not fail the whole portfolio.
+ */
+public class PortfolioScheduler implements TaskScheduler {
+  // The branch and bound search runs until its time budget is used up on hard inputs, so the
+  // default portfolio gives it a short one to keep the latency close to the greedy algorithms.
+  private static final Duration BRANCH_AND_BOUND_TIME_BUDGET = Duration.ofMillis(50);
+
+  /**
+   * Sums up how good a schedule is. A schedule is better if it has a higher priority-weighted
+   * completion, which is the sum of the priority times the duration of every completely scheduled
+   * task. Ties are broken by more scheduled time, and then by fewer scheduled segments, since a
+   * task split into many parts is fragmented.
+   */
+  public static final class Score implements Comparable<Score> {
+    private static final Comparator<Score> sortByScoreAscending =
+        Comparator.comparingLong(Score::getWeightedCompletedSeconds)
+            .thenComparingLong(Score::getScheduledSeconds)
+            .thenComparing(Comparator.comparingInt(Score::getSegmentCount).reversed());
+
+    private final long weightedCompletedSeconds;
+    private final long scheduledSeconds;
+    private final int segmentCount;
+
+    private Score(Collection<ScheduledTask> schedule) {
+      long weightedCompletedSeconds = 0;
+      long scheduledSeconds = 0;
+      for (ScheduledTask scheduledTask : schedule) {
+        Task task = scheduledTask.getTask();
+        long seconds = task.getDuration().getSeconds();
+        scheduledSeconds += seconds;
+        if (scheduledTask
+            .getSchedulingCompleteness()
+            .equals(Optional.of(SchedulingCompleteness.COMPLETELY_SCHEDULED))) {
+          weightedCompletedSeconds += task.getPriority().getPriority() * seconds;
+        }
+      }
+      this.weightedCompletedSeconds = weightedCompletedSeconds;
+      this.scheduledSeconds = scheduledSeconds;
+      this.segmentCount = schedule.size();
+    }
+
+    /** Returns the score of {@code schedule}. */
+    public static Score of(Collection<ScheduledTask> schedule) {
+      return new Score(schedule);
+    }
+
+    public long getWeightedCompletedSeconds() {
+      return weightedCompletedSeconds;
+    }
+
+    public long getScheduledSeconds() {
+      return scheduledSeconds;
+    }
+
+    public int getSegmentCount() {
+      return segmentCount;
+    }
+
+    /** Sorts worse schedules before better ones. */
+    @Override
+    public int compareTo(Score otherScore) {
+      return sortByScoreAscending.compare(this, otherScore);
+    }
+  }
+
+  private final List<TaskScheduler> taskSchedulers;
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a scheduler that runs every other algorithm in SchedulingAlgorithmReference on the
+   * common ForkJoinPool. The branch and bound algorithm is given a budget of 50 milliseconds.
+   */
+  public PortfolioScheduler() {
+    this(getRegisteredTaskSchedulers(), ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a scheduler that runs {@code taskSchedulers} on {@code pool}. When two schedules have
+   * the same score, the one made by the earlier scheduler in the list is returned.
+   */
+  public PortfolioScheduler(List<TaskScheduler> taskSchedulers, ForkJoinPool pool) {
+    if (taskSchedulers == null || taskSchedulers.isEmpty()) {
+      throw new IllegalArgumentException("Task schedulers cannot be null or empty");
+    }
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool cannot be null");
+    }
+    this.taskSchedulers = ImmutableList.copyOf(taskSchedulers);
+    this.pool = pool;
+  }
+
+  /**
+   * Runs every scheduler in parallel and returns the schedule with the highest score among the
+   * schedulers that finish without an error.
+   *
+   * @throws IllegalStateException if every scheduler fails.
+   */
+  public Collection<ScheduledTask> schedule(
+      Collection<CalendarEvent> events,
+      Collection<Task> tasks,
+      Instant workHoursStartTime,
+      Instant workHoursEndTime) {
+    // Every scheduler reads the same inputs, so they are copied once into immutable lists.
+    List<CalendarEvent> eventsList = ImmutableList.copyOf(events);
+    List<Task> tasksList = ImmutableList.copyOf(tasks);
+
+    List<ForkJoinTask<Collection<ScheduledTask>>> runningSchedules =
+        new ArrayList<ForkJoinTask<Collection<ScheduledTask>>>();
+    for (TaskScheduler taskScheduler : taskSchedulers) {
+      runningSchedules.add(
+          pool.submit(
+              () ->
+                  taskScheduler.schedule(
+                      eventsList, tasksList, workHoursStartTime, workHoursEndTime)));
+    }
+
+    Collection<ScheduledTask> bestSchedule = null;
+    Score bestScore = null;
+    Throwable firstFailure = null;
+    for (ForkJoinTask<Collection<ScheduledTask>> runningSchedule : runningSchedules) {
+      Collection<ScheduledTask> schedule;
+      try {
+        schedule = runningSchedule.join();
+      } catch (RuntimeException | StackOverflowError failure) {
+        // A failing scheduler only loses the race; the others may still have a schedule.
+        if (firstFailure == null) {
+          firstFailure = failure;
+        }
+        continue;
+      }
+      Score score = Score.of(schedule);
+      if (bestScore == null || score.compareTo(bestScore) > 0) {
+        bestSchedule = schedule;
+        bestScore = score;
+      }
+    }
+    if (bestSchedule == null) {
+      throw new IllegalStateException("Every task scheduler failed", firstFailure);
+    }
+    return bestSchedule;
+  }
+
+  /** Returns the scheduler's type, which is Portfolio. */
+  public SchedulingAlgorithmType getSchedulingAlgorithmType() {
+    return SchedulingAlgorithmType.PORTFOLIO;
+  }
+
+  /**
+   * Returns a scheduler for every algorithm type in SchedulingAlgorithmReference but this one. The
+   * branch and bound scheduler gets the short budget of the portfolio instead of its default one.
+   */
+  private static List<TaskScheduler> getRegisteredTaskSchedulers() {
+    List<TaskScheduler> taskSchedulers = new ArrayList<TaskScheduler>();
+    for (SchedulingAlgorithmType schedulingAlgorithmType : SchedulingAlgorithmType.values()) {
+      if (schedulingAlgorithmType == SchedulingAlgorithmType.BRANCH_AND_BOUND) {
+        taskSchedulers.add(new BranchAndBoundScheduler(BRANCH_AND_BOUND_TIME_BUDGET));
+      } else if (schedulingAlgorithmType != SchedulingAlgorithmType.PORTFOLIO) {
+        SchedulingAlgorithmReference.getTaskSchedulerOptional(Optional.of(schedulingAlgorithmType))
+            .ifPresent(taskSchedulers::add);
+      }
+    }
+    return taskSchedulers;
+  }
+}
@@ -0,0 +1,174 @@
+package com.google.sps.data;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Models a calendar event that repeats, such as a daily standup. Only the rule of the series is
+ * stored, so the size of a recurring event does not depend on how many times it repeats. The
+ * instances are made on demand by {@link #occurrencesBetween}, which only produces the instances
+ * inside the requested time range.
+ *
+ * <p>All instances have the duration of the first one. Days, weeks and months are counted in UTC,
+ * like every other Instant in the scheduler.
+ */
+public class RecurringCalendarEvent {
+
+  /** How often a recurring event repeats. */
+  public enum Frequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    /**
+     * Returns the start of instance number {@code index} of a series whose first instance starts at
+     * {@code firstStartTime}. Monthly instances are counted from the first one, so a series that
+     * starts on the 31st falls on the last day of shorter months and goes back to the 31st after.
+     */
+    private Instant startOf(Instant firstStartTime, long index) {
+      switch (this) {
+        case DAILY:
+          return firstStartTime.plus(Duration.ofDays(index));
+        case WEEKLY:
+          return firstStartTime.plus(Duration.ofDays(7 * index));
+        default:
+          return firstStartTime.atZone(ZoneOffset.UTC).plusMonths(index).toInstant();
+      }
+    }
+
+    /**
+     * Returns the index of an instance that starts at or before {@code time}, and that is no more
+     * than one instance before the last such instance. This lets the expansion jump close to a time
+     * range instead of walking the series from its start.
+     */
+    private long indexNotAfter(Instant firstStartTime, Instant time) {
+      if (!time.isAfter(firstStartTime)) {
+        return 0;
+      }
+      switch (this) {
+        case DAILY:
+          return Duration.between(firstStartTime, time).toDays();
+        case WEEKLY:
+          return Duration.between(firstStartTime, time).toDays() / 7;
+        default:
+          // Adding months to the first start can land a day early in short months,
+          // so the count of whole months between the two times may be one too many.
+          long months =
+              ChronoUnit.MONTHS.between(
+                  firstStartTime.atZone(ZoneOffset.UTC), time.atZone(ZoneOffset.UTC));
+          return Math.max(0, months - 1);
+      }
+    }
+  }
+
+  private final String name;
+  private final Instant firstStartTime;
+  private final Duration duration;
+  private final Frequency frequency;
+  private final Instant recurrenceEndTime;
+  private final Set<Instant> excludedStartTimes;
+
+  /**
+   * Constructs a recurring event.
+   *
+   * @param name: name of every instance of the event.
+   * @param firstStartTime: start time of the first instance, of type Instant.
+   * @param firstEndTime: end time of the first instance. Every instance has the same duration.
+   * @param frequency: how often the event repeats.
+   * @param recurrenceEndTime: no instance starts after this time. Instant.MAX can be used for a
+   *     series that never ends.
+   * @param excludedStartTimes: start times of instances that were cancelled.
+   */
+  public RecurringCalendarEvent(
+      String name,
+      Instant firstStartTime,
+      Instant firstEndTime,
+      Frequency frequency,
+      Instant recurrenceEndTime,
+      Collection<Instant> excludedStartTimes) {
+    if (name == null) {
+      throw new IllegalArgumentException("Event needs a name");
+    }
+    if (firstStartTime == null) {
+      throw new IllegalArgumentException("Event needs a start time");
+    }
+    if (firstEndTime == null) {
+      throw new IllegalArgumentException("Event needs an end time");
+    }
+    if (firstStartTime.isAfter(firstEndTime)) {
+      throw new IllegalArgumentException("Start time cannot be after end time");
+    }
+    if (frequency == null) {
+      throw new IllegalArgumentException("Recurring event needs a frequency");
+    }
+    if (recurrenceEndTime == null) {
+      throw new IllegalArgumentException("Recurring event needs a recurrence end time");
+    }
+    if (excludedStartTimes == null) {
+      throw new IllegalArgumentException("Excluded start times cannot be null");
+    }
+    this.name = name;
+    this.firstStartTime = firstStartTime;
+    this.duration = Duration.between(firstStartTime, firstEndTime);
+    this.frequency = frequency;
+    this.recurrenceEndTime = recurrenceEndTime;
+    this.excludedStartTimes = ImmutableSet.copyOf(excludedStartTimes);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Instant getFirstStartTime() {
+    return firstStartTime;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  public Frequency getFrequency() {
+    return frequency;
+  }
+
+  public Instant getRecurrenceEndTime() {
+    return recurrenceEndTime;
+  }
+
+  public Set<Instant> getExcludedStartTimes() {
+    return excludedStartTimes;
+  }
+
+  /**
+   * Returns an iterator that makes the instances of the series that overlap [from, to], one at a
+   * time and sorted by start time. Instances before {@code from} are skipped without being made, so
+   * the cost only depends on the number of instances inside the time range.
+   */
+  public Iterator<CalendarEvent> occurrencesBetween(Instant from, Instant to) {
+    long firstIndex = frequency.indexNotAfter(firstStartTime, from.minus(duration));
+    return new AbstractIterator<CalendarEvent>() {
+      private long index = firstIndex;
+
+      @Override
+      protected CalendarEvent computeNext() {
+        while (true) {
+          Instant startTime = frequency.startOf(firstStartTime, index++);
+          if (!startTime.isBefore(to) || startTime.isAfter(recurrenceEndTime)) {
+            return endOfData();
+          }
+          Instant endTime = startTime.plus(duration);
+          if (endTime.isAfter(from) && !excludedStartTimes.contains(startTime)) {
+            return new CalendarEvent(name, startTime, endTime);
+          }
+        }
+      }
+    };
+  }
+}
@@ -38,6 +38,10 @@ public class ScheduledTask {
     return startTime;
   }
 
+  public Optional<SchedulingCompleteness> getSchedulingCompleteness() {
+    return schedulingCompleteness;
+  }
+
   @Override
   public boolean equals(Object other) {
     return other instanceof ScheduledTask && equals(this, (ScheduledTask) other);
@@ -15,6 +15,14 @@ public class SchedulingAlgorithmReference {
         return Optional.of(SchedulingAlgorithmType.LONGEST_TASK_FIRST);
       case "HIGHEST_PRIORITY_FIRST":
         return Optional.of(SchedulingAlgorithmType.HIGHEST_PRIORITY_FIRST);
+      case "BEST_FIT":
+        return Optional.of(SchedulingAlgorithmType.BEST_FIT);
+      case "WORST_FIT":
+        return Optional.of(SchedulingAlgorithmType.WORST_FIT);
+      case "PORTFOLIO":
+        return Optional.of(SchedulingAlgorithmType.PORTFOLIO);
+      case "BRANCH_AND_BOUND":
+        return Optional.of(SchedulingAlgorithmType.BRANCH_AND_BOUND);
     }
     return Optional.empty();
   }
@@ -33,6 +41,14 @@ public class SchedulingAlgorithmReference {
         return Optional.of(new LongestTaskFirstScheduler());
       case HIGHEST_PRIORITY_FIRST:
         return Optional.of(new HighestPriorityFirstScheduler());
+      case BEST_FIT:
+        return Optional.of(new BestFitScheduler());
+      case WORST_FIT:
+        return Optional.of(new WorstFitScheduler());
+      case PORTFOLIO:
+        return Optional.of(new PortfolioScheduler());
+      case BRANCH_AND_BOUND:
+        return Optional.of(new BranchAndBoundScheduler());
     }
     return Optional.empty();
   }
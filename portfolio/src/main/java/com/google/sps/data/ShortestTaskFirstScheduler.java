@@ -18,6 +18,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,10 +42,12 @@ class ShortestTaskFirstScheduler implements TaskScheduler {
     List<Task> tasksList = new ArrayList<Task>(tasks);
     CalendarEventsGroup calendarEventsGroup =
         new CalendarEventsGroup(eventsList, workHoursStartTime, workHoursEndTime);
-    List<TimeRange> availableTimes = calendarEventsGroup.getFreeTimeRanges();
+    Iterator<TimeRange> availableTimes = calendarEventsGroup.freeTimeRangesIterator();
     TaskQueue taskQueue = new TaskQueue(tasksList, getSchedulingAlgorithmType());
     List<ScheduledTask> scheduledTasks = new ArrayList<ScheduledTask>();
-    int rangeIndex = 0;
+    // The free time range we are currently trying to schedule tasks in, or null
+    // once there are no free time ranges left.
+    TimeRange availableTimeRange = availableTimes.hasNext() ? availableTimes.next() : null;
     // Instant indicating the start time we are currently trying to schedule
     // events in.
     Instant currentScheduleTime = workHoursStartTime;
@@ -52,10 +55,11 @@ class ShortestTaskFirstScheduler implements TaskScheduler {
     // scheduled then it will be (and we move onto the next task) otherwise
     // we move on to the next range (this is because the tasks are sorted by
     // duration so if one task did not fit in the given range then we know no
-    // later ones will fit either). We create new Task objects for the result
-    // so data structures passed in are never changed.
-    while (rangeIndex < availableTimes.size() && !taskQueue.isEmpty()) {
-      TimeRange availableTimeRange = availableTimes.get(rangeIndex);
+    // later ones will fit either). The free time ranges are read one at a time,
+    // so once the task queue is empty the remaining ranges are never looked at.
+    // We create new Task objects for the result so data structures passed in are
+    // never changed.
+    while (availableTimeRange != null && !taskQueue.isEmpty()) {
       Task task = taskQueue.peek();
       // Either time is already past the start of the time range or we should
       // update it (maybe this is our first iteration in the range).
@@ -75,7 +79,7 @@ class ShortestTaskFirstScheduler implements TaskScheduler {
         currentScheduleTime = currentScheduleTime.plusSeconds(task.getDuration().getSeconds());
         taskQueue.remove();
       } else {
-        rangeIndex++;
+        availableTimeRange = availableTimes.hasNext() ? availableTimes.next() : null;
       }
     }
     return scheduledTasks;
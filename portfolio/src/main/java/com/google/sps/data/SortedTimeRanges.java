@@ -0,0 +1,126 @@
+package com.google.sps.data;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Helper methods that combine lists of time ranges sorted by start time in a single linear pass.
+ * Lists that come from a TimeRangeGroup are pairwise disjoint; other lists may overlap.
+ */
+final class SortedTimeRanges {
+
+  private SortedTimeRanges() {}
+
+  /** Returns a new list with all the input time ranges, sorted by start time. */
+  static List<TimeRange> sortByStart(Iterable<TimeRange> timeRanges) {
+    List<TimeRange> sortedTimeRanges = new ArrayList<TimeRange>();
+    timeRanges.forEach(sortedTimeRanges::add);
+    Collections.sort(sortedTimeRanges, TimeRange.SORT_BY_START_TIME_ASCENDING);
+    return sortedTimeRanges;
+  }
+
+  /**
+   * Merges two lists sorted by start time into one sorted list of disjoint time ranges. Overlapping
+   * and touching time ranges are merged, just like in TimeRangeGroup#addTimeRange. Both lists are
+   * walked with iterators, so the pass stays linear for linked lists too.
+   */
+  static List<TimeRange> union(List<TimeRange> a, List<TimeRange> b) {
+    List<TimeRange> result = new ArrayList<TimeRange>(a.size() + b.size());
+    PeekingIterator<TimeRange> iteratorA = Iterators.peekingIterator(a.iterator());
+    PeekingIterator<TimeRange> iteratorB = Iterators.peekingIterator(b.iterator());
+
+    TimeRange merged = null;
+    while (iteratorA.hasNext() || iteratorB.hasNext()) {
+      // Take whichever of the two next time ranges starts first.
+      TimeRange next;
+      if (!iteratorB.hasNext()
+          || (iteratorA.hasNext()
+              && iteratorA.peek().startEpochSecond() <= iteratorB.peek().startEpochSecond())) {
+        next = iteratorA.next();
+      } else {
+        next = iteratorB.next();
+      }
+
+      if (merged == null) {
+        merged = next;
+      } else if (next.startEpochSecond() <= merged.endEpochSecond()) {
+        if (next.endEpochSecond() > merged.endEpochSecond()) {
+          merged = TimeRange.fromEpochSeconds(merged.startEpochSecond(), next.endEpochSecond());
+        }
+      } else {
+        result.add(merged);
+        merged = next;
+      }
+    }
+    if (merged != null) {
+      result.add(merged);
+    }
+    return result;
+  }
+
+  /**
+   * Removes every time range of {@code toDelete}, which is sorted by start time, from {@code
+   * timeRanges}, which is sorted and disjoint. The result is the same as calling
+   * TimeRangeGroup#deleteTimeRange for each time range in {@code toDelete}.
+   */
+  static List<TimeRange> subtract(List<TimeRange> timeRanges, List<TimeRange> toDelete) {
+    PeekingIterator<TimeRange> deletions =
+        Iterators.peekingIterator(mergeOverlapping(toDelete).iterator());
+    List<TimeRange> result = new ArrayList<TimeRange>(timeRanges.size());
+
+    for (TimeRange timeRange : timeRanges) {
+      long remainingStart = timeRange.startEpochSecond();
+      long remainingEnd = timeRange.endEpochSecond();
+
+      // Deletions ending before the remaining part of this range cannot affect any later range.
+      while (deletions.hasNext() && deletions.peek().endEpochSecond() <= remainingStart) {
+        deletions.next();
+      }
+
+      // Cut every deletion that starts inside the range out of it. A deletion that ends
+      // inside the range is used up; the last one may continue into the next range, so
+      // it is left for the next range.
+      while (deletions.hasNext() && deletions.peek().startEpochSecond() < remainingEnd) {
+        TimeRange deletion = deletions.peek();
+        if (deletion.startEpochSecond() > remainingStart) {
+          result.add(TimeRange.fromEpochSeconds(remainingStart, deletion.startEpochSecond()));
+        }
+        remainingStart = Math.max(remainingStart, deletion.endEpochSecond());
+        if (deletion.endEpochSecond() > remainingEnd) {
+          break;
+        }
+        deletions.next();
+      }
+
+      if (remainingStart < remainingEnd) {
+        result.add(TimeRange.fromEpochSeconds(remainingStart, remainingEnd));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Merges time ranges that strictly overlap in a list sorted by start time. Touching time ranges
+   * are kept apart, so that deleting a time range with no duration still splits a range in two.
+   */
+  static List<TimeRange> mergeOverlapping(List<TimeRange> timeRanges) {
+    List<TimeRange> result = new ArrayList<TimeRange>(timeRanges.size());
+    for (TimeRange timeRange : timeRanges) {
+      int lastIndex = result.size() - 1;
+      if (lastIndex >= 0 && timeRange.startEpochSecond() < result.get(lastIndex).endEpochSecond()) {
+        TimeRange last = result.get(lastIndex);
+        if (timeRange.endEpochSecond() > last.endEpochSecond()) {
+          result.set(
+              lastIndex,
+              TimeRange.fromEpochSeconds(last.startEpochSecond(), timeRange.endEpochSecond()));
+        }
+      } else {
+        result.add(timeRange);
+      }
+    }
+    return result;
+  }
+}
@@ -0,0 +1,91 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * A view of the part of another TimeRangeGroup that lies inside the window [from, to]. The view
+ * stores no time ranges of its own: queries and iteration go straight to the backing group, and
+ * changes to the view are written through to it. Changes made to the backing group are visible in
+ * the view as well.
+ */
+final class SubTimeRangeGroup implements TimeRangeGroup {
+  private final TimeRangeGroup backingGroup;
+  private final Instant from;
+  private final Instant to;
+
+  SubTimeRangeGroup(TimeRangeGroup backingGroup, Instant from, Instant to) {
+    if (from.isAfter(to)) {
+      throw new IllegalArgumentException("Start of the window cannot be after its end");
+    }
+    this.backingGroup = backingGroup;
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * Adds a time range to the backing group. The time range must lie inside the window, just like a
+   * key added to a NavigableMap#subMap view must lie inside its range.
+   */
+  @Override
+  public void addTimeRange(TimeRange timeRange) {
+    if (!isInWindow(timeRange)) {
+      throw new IllegalArgumentException("Time range is outside the window: " + timeRange);
+    }
+    backingGroup.addTimeRange(timeRange);
+  }
+
+  /** Checks if a time range lies inside the window and exists in the backing group. */
+  @Override
+  public boolean hasTimeRange(TimeRange timeRange) {
+    return isInWindow(timeRange) && backingGroup.hasTimeRange(timeRange);
+  }
+
+  /** Deletes the part of a time range that lies inside the window from the backing group. */
+  @Override
+  public void deleteTimeRange(TimeRange timeRangeToDelete) {
+    Instant start = timeRangeToDelete.start().isBefore(from) ? from : timeRangeToDelete.start();
+    Instant end = timeRangeToDelete.end().isAfter(to) ? to : timeRangeToDelete.end();
+    if (start.isBefore(end)) {
+      backingGroup.deleteTimeRange(TimeRange.fromStartEnd(start, end));
+    }
+  }
+
+  /**
+   * Finds the earliest place inside the window where {@code duration} fits. The backing group finds
+   * its first fit at or after the start of the window; if that place does not end inside the
+   * window, no later place does either.
+   */
+  @Override
+  public Optional<Instant> findFirstFit(Duration duration, Instant notBefore) {
+    Instant start = notBefore.isBefore(from) ? from : notBefore;
+    return backingGroup
+        .findFirstFit(duration, start)
+        .filter(fit -> !fit.plus(duration).isAfter(to));
+  }
+
+  @Override
+  public Iterator<TimeRange> iteratorFrom(Instant start) {
+    Instant windowStart = start.isBefore(from) ? from : start;
+    return new ClippedTimeRangeIterator(backingGroup.iteratorFrom(windowStart), windowStart, to);
+  }
+
+  @Override
+  public TimeRangeGroup subGroup(Instant subFrom, Instant subTo) {
+    Instant windowStart = subFrom.isBefore(from) ? from : subFrom;
+    Instant windowEnd = subTo.isAfter(to) ? to : subTo;
+    return new SubTimeRangeGroup(backingGroup, windowStart, windowEnd);
+  }
+
+  /** Returns an iterator for the parts of the time ranges that lie inside the window. */
+  @Override
+  public Iterator<TimeRange> iterator() {
+    return iteratorFrom(from);
+  }
+
+  private boolean isInWindow(TimeRange timeRange) {
+    return !timeRange.start().isBefore(from) && !timeRange.end().isAfter(to);
+  }
+}
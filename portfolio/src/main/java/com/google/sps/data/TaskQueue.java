@@ -52,6 +52,8 @@ public class TaskQueue {
       case SHORTEST_TASK_FIRST:
         return new PriorityQueue<Task>(DEFAULT_QUEUE_SIZE, sortByTaskDurationThenName);
       case LONGEST_TASK_FIRST:
+      case BEST_FIT:
+      case WORST_FIT:
         return new PriorityQueue<Task>(
             DEFAULT_QUEUE_SIZE, sortByTaskDurationDescendingThenPriorityThenName);
       case HIGHEST_PRIORITY_FIRST:
@@ -21,32 +21,55 @@ import java.util.Comparator;
 /**
  * Class representing a span of time, enforcing properties (e.g. start comes before end) and
  * providing methods to make ranges easier to work with (e.g. {@code overlaps}).
+ *
+ * <p>Calendar times are only precise to the second, so the range stores its start and end as epoch
+ * seconds in two primitive fields. The predicates compare these fields directly and never create
+ * Instant or Duration objects; the Instant and Duration accessors create them on demand.
  */
 public final class TimeRange {
-  private final Instant start;
-  private final Duration duration;
+  private final long startEpochSecond;
+  private final long endEpochSecond;
   // Comparator for sorting time ranges by duration ascending and then by start time ascending
   public static final Comparator<TimeRange> SORT_BY_TIME_RANGE_DURATION_ASCENDING_THEN_START_TIME =
-      Comparator.comparing(TimeRange::duration).thenComparing(TimeRange::start);
-
-  private TimeRange(Instant start, Duration duration) {
-    this.start = start;
-    this.duration = duration;
+      Comparator.comparingLong(TimeRange::durationSeconds)
+          .thenComparingLong(TimeRange::startEpochSecond);
+  // Comparator for sorting time ranges by start time ascending
+  public static final Comparator<TimeRange> SORT_BY_START_TIME_ASCENDING =
+      Comparator.comparingLong(TimeRange::startEpochSecond);
+
+  private TimeRange(long startEpochSecond, long endEpochSecond) {
+    this.startEpochSecond = startEpochSecond;
+    this.endEpochSecond = endEpochSecond;
   }
 
-  /** Returns the start of the range in minutes. */
+  /** Returns the start of the range. */
   public Instant start() {
-    return start;
+    return Instant.ofEpochSecond(startEpochSecond);
   }
 
-  /** Returns the number of minutes between the start and end. */
+  /** Returns the duration between the start and end. */
   public Duration duration() {
-    return duration;
+    return Duration.ofSeconds(durationSeconds());
   }
 
   /** Returns the end of the range. This ending value is the closing exclusive bound. */
   public Instant end() {
-    return start.plus(duration);
+    return Instant.ofEpochSecond(endEpochSecond);
+  }
+
+  /** Returns the start of the range in seconds since the epoch. */
+  public long startEpochSecond() {
+    return startEpochSecond;
+  }
+
+  /** Returns the end of the range in seconds since the epoch. */
+  public long endEpochSecond() {
+    return endEpochSecond;
+  }
+
+  /** Returns the number of seconds between the start and end. */
+  public long durationSeconds() {
+    return endEpochSecond - startEpochSecond;
   }
 
   @Override
@@ -54,18 +77,36 @@ public final class TimeRange {
     return other instanceof TimeRange && equals(this, (TimeRange) other);
   }
 
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(startEpochSecond) + Long.hashCode(endEpochSecond);
+  }
+
   @Override
   public String toString() {
-    return String.format("Range: [%s, %s]", start.toString(), this.end().toString());
+    return String.format("Range: [%s, %s]", start().toString(), end().toString());
   }
 
   public static boolean equals(TimeRange a, TimeRange b) {
-    return a.start.equals(b.start) && a.duration.equals(b.duration);
+    return a.startEpochSecond == b.startEpochSecond && a.endEpochSecond == b.endEpochSecond;
   }
 
   /** Creates a {@code TimeRange} from {@code start} to {@code end}. */
   public static TimeRange fromStartEnd(Instant start, Instant end) {
-    return new TimeRange(start, Duration.ofSeconds(end.getEpochSecond() - start.getEpochSecond()));
+    return new TimeRange(start.getEpochSecond(), end.getEpochSecond());
+  }
+
+  /**
+   * Creates a {@code TimeRange} from {@code startEpochSecond} to {@code endEpochSecond}, both in
+   * seconds since the epoch.
+   *
+   * @throws IllegalArgumentException if {@code startEpochSecond} is after {@code endEpochSecond}
+   */
+  public static TimeRange fromEpochSeconds(long startEpochSecond, long endEpochSecond) {
+    if (startEpochSecond > endEpochSecond) {
+      throw new IllegalArgumentException("Start of time range cannot be after its end");
+    }
+    return new TimeRange(startEpochSecond, endEpochSecond);
   }
 
   /**
@@ -75,19 +116,19 @@ public final class TimeRange {
    */
   public boolean contains(TimeRange otherRange) {
     // If this range has no duration, it cannot contain anything.
-    if (duration.getSeconds() <= 0) {
+    if (durationSeconds() <= 0) {
       return false;
     }
 
     // If the other range has no duration, then it is treated like a point that is
     // anchored in its start time.
-    if (otherRange.duration.getSeconds() <= 0) {
-      return timeRangeContainsPoint(this, otherRange.start);
+    if (otherRange.durationSeconds() <= 0) {
+      return timeRangeContainsPoint(this, otherRange.startEpochSecond);
     }
 
     // Checks if the time range contains the other range's start and end points.
-    return timeRangeContainsPoint(this, otherRange.start)
-        && timeRangeContainsPoint(this, otherRange.end());
+    return timeRangeContainsPoint(this, otherRange.startEpochSecond)
+        && timeRangeContainsPoint(this, otherRange.endEpochSecond);
   }
 
   /**
@@ -95,20 +136,25 @@ public final class TimeRange {
    * method is package-private so that it can be tested.
    */
   static boolean timeRangeContainsPoint(TimeRange range, Instant point) {
+    return timeRangeContainsPoint(range, point.getEpochSecond());
+  }
+
+  /** Checks if a time range contains a time point given in seconds since the epoch. */
+  static boolean timeRangeContainsPoint(TimeRange range, long pointEpochSecond) {
     // If a range has no duration, it cannot contain anything.
-    if (range.duration.getSeconds() <= 0) {
+    if (range.durationSeconds() <= 0) {
       return false;
     }
 
     // If the point comes before the start of the range, the range cannot contain it.
-    if (point.getEpochSecond() < range.start.getEpochSecond()) {
+    if (pointEpochSecond < range.startEpochSecond) {
       return false;
     }
 
     // This is to make sure [8 - 8:30] contains 8:30, for example.
     // The end of a time range is considered part of this time range,
     // so that [8 - 8:30] and [8:30 - 9] can be considered as overlapping.
-    return point.getEpochSecond() <= range.start.getEpochSecond() + range.duration.getSeconds();
+    return pointEpochSecond <= range.endEpochSecond;
   }
 
   /**
@@ -125,7 +171,7 @@ public final class TimeRange {
     //            |---|
     // Case 4:    |--------|
     //         |-----|
-    return (timeRangeContainsPoint(this, otherRange.start())
-        || timeRangeContainsPoint(otherRange, start));
+    return (timeRangeContainsPoint(this, otherRange.startEpochSecond)
+        || timeRangeContainsPoint(otherRange, startEpochSecond));
   }
 }
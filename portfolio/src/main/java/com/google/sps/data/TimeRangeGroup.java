@@ -1,6 +1,9 @@
 package com.google.sps.data;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Iterator;
+import java.util.Optional;
 
 public interface TimeRangeGroup extends Iterable<TimeRange> {
 
@@ -25,6 +28,70 @@ public interface TimeRangeGroup extends Iterable<TimeRange> {
    */
   public void deleteTimeRange(TimeRange timeRangeToDelete);
 
+  /**
+   * Adds every time range in {@code timeRanges}, with the same result as calling addTimeRange for
+   * each of them. Implementations that store their time ranges in sorted order should override this
+   * to sort the new time ranges once and merge them in a single pass.
+   */
+  public default void addAll(Iterable<TimeRange> timeRanges) {
+    timeRanges.forEach(this::addTimeRange);
+  }
+
+  /**
+   * Deletes every time range in {@code timeRanges}, with the same result as calling deleteTimeRange
+   * for each of them. Implementations that store their time ranges in sorted order should override
+   * this to sort the deleted time ranges once and remove them in a single pass.
+   */
+  public default void deleteAll(Iterable<TimeRange> timeRanges) {
+    timeRanges.forEach(this::deleteTimeRange);
+  }
+
+  /**
+   * Finds the earliest instant at or after {@code notBefore} at which a time range of the given
+   * duration lies entirely inside one of the time ranges in the group. For example, if [3:00 -
+   * 4:00] and [5:00 - 7:00] are in the group, a duration of 1.5 hours that cannot start before 3:30
+   * fits at 5:00. Returns an empty Optional if the duration fits nowhere.
+   *
+   * <p>This default implementation starts at {@code notBefore} with {@link #iteratorFrom}, so the
+   * earlier time ranges are skipped as fast as the group can find its place, and then checks the
+   * time ranges one by one. Implementations that can also skip time ranges that are too short
+   * should override it.
+   */
+  public default Optional<Instant> findFirstFit(Duration duration, Instant notBefore) {
+    Iterator<TimeRange> timeRanges = iteratorFrom(notBefore);
+    while (timeRanges.hasNext()) {
+      TimeRange timeRange = timeRanges.next();
+      Instant candidateStart =
+          timeRange.start().isBefore(notBefore) ? notBefore : timeRange.start();
+      if (!candidateStart.plus(duration).isAfter(timeRange.end())) {
+        return Optional.of(candidateStart);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns an iterator for the time ranges that end after {@code from}, in ascending order of
+   * their start times. The time range that contains {@code from} is cut to start at {@code from}.
+   * No time ranges are copied, so the iterator must not be used after the group changes.
+   *
+   * <p>This default implementation skips the earlier time ranges one by one. Implementations that
+   * can find the first time range directly should override it.
+   */
+  public default Iterator<TimeRange> iteratorFrom(Instant from) {
+    return new ClippedTimeRangeIterator(iterator(), from, Instant.MAX);
+  }
+
+  /**
+   * Returns a view of the part of this group that lies inside [from, to]. The view copies no time
+   * ranges: it reads from this group through {@link #iteratorFrom}, writes changes through to this
+   * group, and sees changes made to this group. Time ranges added to the view must lie inside the
+   * window.
+   */
+  public default TimeRangeGroup subGroup(Instant from, Instant to) {
+    return new SubTimeRangeGroup(this, from, to);
+  }
+
   /** Returns an iterator for the collection of all time ranges. */
   public Iterator<TimeRange> iterator();
 }
@@ -0,0 +1,124 @@
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Set operations between TimeRangeGroups, for example to find the free time that several calendars
+ * share. The time ranges of a group are always sorted and disjoint, so each operation is a single
+ * merge over the groups' iterators instead of one addTimeRange or deleteTimeRange call per range.
+ * Every operation returns a new list of disjoint time ranges sorted by start time, which can be
+ * passed to the constructor of any TimeRangeGroup.
+ */
+public final class TimeRangeGroups {
+
+  private TimeRangeGroups() {}
+
+  /**
+   * Returns the time ranges that are in {@code a} or in {@code b}, in O(n + m) time. Overlapping
+   * and touching time ranges are merged, just like in TimeRangeGroup#addTimeRange.
+   */
+  public static List<TimeRange> union(TimeRangeGroup a, TimeRangeGroup b) {
+    return SortedTimeRanges.union(toList(a), toList(b));
+  }
+
+  /**
+   * Returns the time ranges that are in both {@code a} and {@code b}, in O(n + m) time. Time ranges
+   * that only touch at one instant have no time in common, so they are left out.
+   */
+  public static List<TimeRange> intersect(TimeRangeGroup a, TimeRangeGroup b) {
+    return intersectAll(Arrays.asList(a, b));
+  }
+
+  /**
+   * Returns the time ranges that are in {@code a} and not in {@code b}, in O(n + m) time. The
+   * result is the same as calling TimeRangeGroup#deleteTimeRange on {@code a} for each range in
+   * {@code b}.
+   */
+  public static List<TimeRange> subtract(TimeRangeGroup a, TimeRangeGroup b) {
+    return SortedTimeRanges.subtract(toList(a), toList(b));
+  }
+
+  /**
+   * Returns the time ranges that are in every one of {@code groups}, for example the time when all
+   * attendees of a meeting are free. This takes O(N log k) time for k groups with N time ranges in
+   * total.
+   *
+   * <p>The current time range of each group is kept in a heap ordered by end time. A common time
+   * range exists whenever the latest of their starts is before the earliest of their ends; after
+   * that, the group whose time range ends first moves on to its next time range.
+   */
+  public static List<TimeRange> intersectAll(Collection<? extends TimeRangeGroup> groups) {
+    if (groups.isEmpty()) {
+      throw new IllegalArgumentException("At least one group is needed for an intersection");
+    }
+
+    List<TimeRange> result = new ArrayList<TimeRange>();
+    PriorityQueue<Cursor> cursorsByEnd =
+        new PriorityQueue<Cursor>(groups.size(), Cursor.SORT_BY_CURRENT_END_ASCENDING);
+    TimeRange latestStartRange = null;
+    for (TimeRangeGroup group : groups) {
+      Iterator<TimeRange> iterator = group.iterator();
+      if (!iterator.hasNext()) {
+        return result;
+      }
+      Cursor cursor = new Cursor(iterator);
+      cursorsByEnd.add(cursor);
+      latestStartRange = laterStart(latestStartRange, cursor.current);
+    }
+
+    while (true) {
+      Cursor earliestEndCursor = cursorsByEnd.poll();
+      TimeRange earliestEndRange = earliestEndCursor.current;
+      if (latestStartRange.start().isBefore(earliestEndRange.end())) {
+        result.add(TimeRange.fromStartEnd(latestStartRange.start(), earliestEndRange.end()));
+      }
+
+      // No later common time range can use the part before this end, so this
+      // group moves on. Once any group runs out, nothing more is common to all.
+      if (!earliestEndCursor.advance()) {
+        return result;
+      }
+      latestStartRange = laterStart(latestStartRange, earliestEndCursor.current);
+      cursorsByEnd.add(earliestEndCursor);
+    }
+  }
+
+  private static TimeRange laterStart(TimeRange a, TimeRange b) {
+    return a == null || b.start().isAfter(a.start()) ? b : a;
+  }
+
+  private static List<TimeRange> toList(TimeRangeGroup group) {
+    List<TimeRange> timeRanges = new ArrayList<TimeRange>();
+    group.forEach(timeRanges::add);
+    return timeRanges;
+  }
+
+  /** The position of the n-way intersection in the time ranges of one group. */
+  private static final class Cursor {
+    private static final Comparator<Cursor> SORT_BY_CURRENT_END_ASCENDING =
+        Comparator.comparing((Cursor cursor) -> cursor.current.end());
+
+    private final Iterator<TimeRange> iterator;
+    private TimeRange current;
+
+    private Cursor(Iterator<TimeRange> iterator) {
+      this.iterator = iterator;
+      this.current = iterator.next();
+    }
+
+    /** Moves to the next time range, or returns false if there is none. */
+    private boolean advance() {
+      if (!iterator.hasNext()) {
+        return false;
+      }
+      current = iterator.next();
+      return true;
+    }
+  }
+}
@@ -0,0 +1,350 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Helper methods for a balanced (AVL) binary search tree of disjoint time ranges keyed on their
+ * start time. Each node also stores the longest duration of any time range in its subtree, which
+ * lets first-fit queries skip every subtree that has no range long enough.
+ *
+ * <p>Nodes are never modified after they are created. Inserting or removing a range copies only the
+ * nodes on the path from the root to the changed node, so a root that was handed out earlier still
+ * describes the tree as it was at that point.
+ */
+final class TimeRangeTree {
+
+  /** A node of the tree. A null node represents the empty tree. */
+  static final class Node {
+    final TimeRange range;
+    final Node left;
+    final Node right;
+    final int height;
+    // The longest duration, in seconds, of any time range in this subtree.
+    final long maxDurationSeconds;
+
+    private Node(TimeRange range, Node left, Node right) {
+      this.range = range;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.maxDurationSeconds =
+          Math.max(
+              range.durationSeconds(),
+              Math.max(maxDurationSeconds(left), maxDurationSeconds(right)));
+    }
+  }
+
+  private TimeRangeTree() {}
+
+  /**
+   * Returns a balanced tree with all the ranges of {@code sortedRanges}, which must be sorted by
+   * start time and disjoint, in linear time.
+   */
+  static Node buildFromSorted(List<TimeRange> sortedRanges) {
+    return buildFromSorted(sortedRanges, 0, sortedRanges.size());
+  }
+
+  private static Node buildFromSorted(List<TimeRange> sortedRanges, int fromIndex, int toIndex) {
+    if (fromIndex >= toIndex) {
+      return null;
+    }
+    int middle = (fromIndex + toIndex) >>> 1;
+    return new Node(
+        sortedRanges.get(middle),
+        buildFromSorted(sortedRanges, fromIndex, middle),
+        buildFromSorted(sortedRanges, middle + 1, toIndex));
+  }
+
+  /**
+   * Returns a tree with {@code timeRange} added to the disjoint ranges of the tree. If the time
+   * range overlaps with any existing range, the overlapping ranges are removed and replaced by one
+   * merged range.
+   */
+  static Node addTimeRange(Node root, TimeRange timeRange) {
+    long newRangeStart = timeRange.startEpochSecond();
+    long newRangeEnd = timeRange.endEpochSecond();
+
+    // The range starting at or before the new range is the only one that can
+    // overlap with the new range's start, because all ranges are disjoint.
+    TimeRange floorRange = floor(root, newRangeStart);
+    if (floorRange != null && floorRange.overlaps(timeRange)) {
+      // If the new range is already covered, nothing needs to change.
+      if (floorRange.endEpochSecond() >= newRangeEnd) {
+        return root;
+      }
+      newRangeStart = floorRange.startEpochSecond();
+      root = remove(root, newRangeStart);
+    }
+
+    // Every range that starts inside the new range is merged into it.
+    for (TimeRange coveredRange = ceiling(root, newRangeStart);
+        coveredRange != null && coveredRange.startEpochSecond() <= newRangeEnd;
+        coveredRange = ceiling(root, newRangeStart)) {
+      newRangeEnd = Math.max(newRangeEnd, coveredRange.endEpochSecond());
+      root = remove(root, coveredRange.startEpochSecond());
+    }
+
+    return insert(root, TimeRange.fromEpochSeconds(newRangeStart, newRangeEnd));
+  }
+
+  /**
+   * Returns a tree with {@code timeRangeToDelete} deleted from the disjoint ranges of the tree. The
+   * range starting at or before the range to delete may be split into two, and the ranges starting
+   * inside the range to delete are removed, except for the part of the last one that extends past
+   * the deleted range.
+   */
+  static Node deleteTimeRange(Node root, TimeRange timeRangeToDelete) {
+    long toDeleteRangeStart = timeRangeToDelete.startEpochSecond();
+    long toDeleteRangeEnd = timeRangeToDelete.endEpochSecond();
+
+    TimeRange floorRange = floor(root, toDeleteRangeStart);
+    if (floorRange != null && floorRange.endEpochSecond() > toDeleteRangeStart) {
+      root = remove(root, floorRange.startEpochSecond());
+
+      // Construct one or two new time ranges after the deletion.
+      if (floorRange.startEpochSecond() < toDeleteRangeStart) {
+        root =
+            insert(
+                root,
+                TimeRange.fromEpochSeconds(floorRange.startEpochSecond(), toDeleteRangeStart));
+      }
+      if (floorRange.endEpochSecond() > toDeleteRangeEnd) {
+        return insert(
+            root, TimeRange.fromEpochSeconds(toDeleteRangeEnd, floorRange.endEpochSecond()));
+      }
+    }
+
+    // Ranges that start inside the deleted range are removed. The last of them
+    // may extend past the deleted range, in which case its tail is kept.
+    for (TimeRange coveredRange = ceiling(root, toDeleteRangeStart);
+        coveredRange != null && coveredRange.startEpochSecond() < toDeleteRangeEnd;
+        coveredRange = ceiling(root, toDeleteRangeStart)) {
+      root = remove(root, coveredRange.startEpochSecond());
+      if (coveredRange.endEpochSecond() > toDeleteRangeEnd) {
+        return insert(
+            root, TimeRange.fromEpochSeconds(toDeleteRangeEnd, coveredRange.endEpochSecond()));
+      }
+    }
+    return root;
+  }
+
+  /** Returns true if one of the disjoint ranges of the tree contains {@code timeRangeToCheck}. */
+  static boolean hasTimeRange(Node root, TimeRange timeRangeToCheck) {
+    // Only the range starting at or before the target range's start can contain it.
+    TimeRange floorRange = floor(root, timeRangeToCheck.startEpochSecond());
+    return floorRange != null && floorRange.contains(timeRangeToCheck);
+  }
+
+  /** Returns a tree with {@code range} added. The range must not share its start with another. */
+  static Node insert(Node node, TimeRange range) {
+    if (node == null) {
+      return new Node(range, null, null);
+    }
+    int comparison = Long.compare(range.startEpochSecond(), node.range.startEpochSecond());
+    if (comparison < 0) {
+      return balance(node.range, insert(node.left, range), node.right);
+    }
+    if (comparison > 0) {
+      return balance(node.range, node.left, insert(node.right, range));
+    }
+    return new Node(range, node.left, node.right);
+  }
+
+  /** Returns a tree without the range starting at {@code startEpochSecond}, if there is one. */
+  static Node remove(Node node, long startEpochSecond) {
+    if (node == null) {
+      return null;
+    }
+    int comparison = Long.compare(startEpochSecond, node.range.startEpochSecond());
+    if (comparison < 0) {
+      return balance(node.range, remove(node.left, startEpochSecond), node.right);
+    }
+    if (comparison > 0) {
+      return balance(node.range, node.left, remove(node.right, startEpochSecond));
+    }
+    if (node.left == null) {
+      return node.right;
+    }
+    if (node.right == null) {
+      return node.left;
+    }
+    Node successor = node.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(
+        successor.range, node.left, remove(node.right, successor.range.startEpochSecond()));
+  }
+
+  /**
+   * Returns the range with the latest start at or before {@code epochSecond}, or null if none.
+   * Ranges start on whole seconds, so this is also the floor of any instant inside that second.
+   */
+  static TimeRange floor(Node node, long epochSecond) {
+    TimeRange floor = null;
+    while (node != null) {
+      if (node.range.startEpochSecond() > epochSecond) {
+        node = node.left;
+      } else {
+        floor = node.range;
+        node = node.right;
+      }
+    }
+    return floor;
+  }
+
+  /** Returns the range with the earliest start at or after {@code epochSecond}, or null if none. */
+  static TimeRange ceiling(Node node, long epochSecond) {
+    TimeRange ceiling = null;
+    while (node != null) {
+      if (node.range.startEpochSecond() < epochSecond) {
+        node = node.right;
+      } else {
+        ceiling = node.range;
+        node = node.left;
+      }
+    }
+    return ceiling;
+  }
+
+  /**
+   * Returns the earliest instant at or after {@code notBefore} at which {@code duration} fits
+   * inside one of the ranges of the tree, or null if there is none. The range containing {@code
+   * notBefore} is checked first; after that, only the start of a range and its duration matter, so
+   * the search descends through the subtrees whose longest duration is long enough.
+   */
+  static Instant findFirstFit(Node node, Duration duration, Instant notBefore) {
+    long notBeforeSecond = notBefore.getEpochSecond();
+    TimeRange floor = floor(node, notBeforeSecond);
+    if (floor != null && !notBefore.plus(duration).isAfter(floor.end())) {
+      return notBefore;
+    }
+
+    // Ranges are kept with second precision, so round a partial second up. A range
+    // that starts after notBefore starts after its whole second too.
+    long requiredSeconds = duration.getSeconds() + (duration.getNano() > 0 ? 1 : 0);
+    TimeRange firstFit = firstRangeStartingAfter(node, notBeforeSecond, requiredSeconds);
+    return firstFit == null ? null : firstFit.start();
+  }
+
+  /**
+   * Returns the earliest-starting range that starts strictly after {@code epochSecond} and lasts at
+   * least {@code requiredSeconds}, or null if none.
+   */
+  private static TimeRange firstRangeStartingAfter(
+      Node node, long epochSecond, long requiredSeconds) {
+    if (node == null || node.maxDurationSeconds < requiredSeconds) {
+      return null;
+    }
+    if (node.range.startEpochSecond() > epochSecond) {
+      TimeRange inLeftSubtree = firstRangeStartingAfter(node.left, epochSecond, requiredSeconds);
+      if (inLeftSubtree != null) {
+        return inLeftSubtree;
+      }
+      if (node.range.durationSeconds() >= requiredSeconds) {
+        return node.range;
+      }
+    }
+    return firstRangeStartingAfter(node.right, epochSecond, requiredSeconds);
+  }
+
+  /** Returns an iterator over the ranges of the tree in ascending order of their start times. */
+  static Iterator<TimeRange> iterator(Node root) {
+    return new TreeIterator(pushLeftPath(new ArrayDeque<Node>(), root));
+  }
+
+  /**
+   * Returns an iterator over the ranges of the tree that end after {@code time}, in ascending order
+   * of their start times. Because the ranges are disjoint, their ends are sorted as well, so the
+   * first of them is found along one path from the root.
+   */
+  static Iterator<TimeRange> iteratorFrom(Node root, Instant time) {
+    // Ranges end on whole seconds, so a range ends after the instant exactly when
+    // it ends after the instant's whole second.
+    long epochSecond = time.getEpochSecond();
+    Deque<Node> path = new ArrayDeque<Node>();
+    Node node = root;
+    while (node != null) {
+      if (node.range.endEpochSecond() > epochSecond) {
+        path.push(node);
+        node = node.left;
+      } else {
+        node = node.right;
+      }
+    }
+    return new TreeIterator(path);
+  }
+
+  /** An in-order iterator that starts from a stack of nodes whose ranges come next. */
+  private static final class TreeIterator implements Iterator<TimeRange> {
+    // The nodes whose ranges come next, with the next one on top.
+    private final Deque<Node> path;
+
+    private TreeIterator(Deque<Node> path) {
+      this.path = path;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !path.isEmpty();
+    }
+
+    @Override
+    public TimeRange next() {
+      if (path.isEmpty()) {
+        throw new NoSuchElementException();
+      }
+      Node node = path.pop();
+      pushLeftPath(path, node.right);
+      return node.range;
+    }
+  }
+
+  private static Deque<Node> pushLeftPath(Deque<Node> path, Node node) {
+    while (node != null) {
+      path.push(node);
+      node = node.left;
+    }
+    return path;
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static long maxDurationSeconds(Node node) {
+    return node == null ? Long.MIN_VALUE : node.maxDurationSeconds;
+  }
+
+  /**
+   * Creates a node from a range and two subtrees whose heights differ by at most two, rotating once
+   * or twice so that the heights of the new node's subtrees differ by at most one.
+   */
+  private static Node balance(TimeRange range, Node left, Node right) {
+    if (height(left) > height(right) + 1) {
+      if (height(left.left) >= height(left.right)) {
+        return new Node(left.range, left.left, new Node(range, left.right, right));
+      }
+      return new Node(
+          left.right.range,
+          new Node(left.range, left.left, left.right.left),
+          new Node(range, left.right.right, right));
+    }
+    if (height(right) > height(left) + 1) {
+      if (height(right.right) >= height(right.left)) {
+        return new Node(right.range, new Node(range, left, right.left), right.right);
+      }
+      return new Node(
+          right.left.range,
+          new Node(range, left, right.left.left),
+          new Node(right.range, right.left.right, right.right));
+    }
+    return new Node(range, left, right);
+  }
+}
@@ -0,0 +1,141 @@
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Models an implementation of the TimeRangeGroup model using a TreeMap keyed on the start of each
+ * time range. Because the time ranges are always kept pairwise disjoint, the only ranges that an
+ * addition or a deletion can touch are the range starting at or before the new range's start and
+ * the ranges starting inside the new range. Both can be found in logarithmic time, so adding and
+ * deleting a time range no longer rebuilds the whole collection.
+ */
+public class TreeMapTimeRangeGroup implements TimeRangeGroup {
+  private final NavigableMap<Long, TimeRange> allTimeRanges;
+
+  /** Adds all the input time ranges to the tree of all time ranges. */
+  public TreeMapTimeRangeGroup(Iterable<TimeRange> timeRanges) {
+    allTimeRanges = new TreeMap<Long, TimeRange>();
+    timeRanges.forEach(this::addTimeRange);
+  }
+
+  /**
+   * Adds a new time range to the tree. If the time range to add overlaps with any existing time
+   * range, the overlapping time ranges are removed from the tree and replaced by one merged range.
+   */
+  @Override
+  public void addTimeRange(TimeRange timeRange) {
+    long newRangeStart = timeRange.startEpochSecond();
+    long newRangeEnd = timeRange.endEpochSecond();
+
+    // The range starting at or before the new range is the only one that can
+    // overlap with the new range's start, because all ranges are disjoint.
+    Map.Entry<Long, TimeRange> floorEntry = allTimeRanges.floorEntry(newRangeStart);
+    if (floorEntry != null && floorEntry.getValue().overlaps(timeRange)) {
+      TimeRange floorRange = floorEntry.getValue();
+      // If the new range is already covered, nothing needs to change.
+      if (floorRange.endEpochSecond() >= newRangeEnd) {
+        return;
+      }
+      newRangeStart = floorRange.startEpochSecond();
+      allTimeRanges.remove(floorEntry.getKey());
+    }
+
+    // Every range that starts inside the new range is merged into it. Only the
+    // last of them can end after the new range does.
+    NavigableMap<Long, TimeRange> coveredRanges =
+        allTimeRanges.subMap(newRangeStart, true, newRangeEnd, true);
+    if (!coveredRanges.isEmpty()) {
+      newRangeEnd = Math.max(newRangeEnd, coveredRanges.lastEntry().getValue().endEpochSecond());
+      coveredRanges.clear();
+    }
+
+    allTimeRanges.put(newRangeStart, TimeRange.fromEpochSeconds(newRangeStart, newRangeEnd));
+  }
+
+  /**
+   * Checks if a time range exists in the collection. For example, if [3:00 - 4:00] is in the
+   * collection, [3:00 - 3:30] is considered to exist as a time range in the collection. Only the
+   * range starting at or before the target range's start can contain it.
+   */
+  @Override
+  public boolean hasTimeRange(TimeRange timeRangeToCheck) {
+    Map.Entry<Long, TimeRange> floorEntry =
+        allTimeRanges.floorEntry(timeRangeToCheck.startEpochSecond());
+    return floorEntry != null && floorEntry.getValue().contains(timeRangeToCheck);
+  }
+
+  /**
+   * Delete a time range from the tree. The range starting at or before the range to delete may be
+   * split into two, and the ranges starting inside the range to delete are removed, except for the
+   * part of the last one that extends past the deleted range.
+   *
+   * <p>For example, if the tree contains [3:00 - 4:00] and [5:00 - 6:00], deleting [3:15 - 3:30]
+   * will result in [3 - 3:15] and [3:30 - 4] as new time ranges.
+   *
+   * <p>Another example for deleting overlapping time ranges: if [3 - 4] and [5 - 6] are in the
+   * original tree, deleting [3:30 - 5:30] will result in two new ranges: [3 - 3:30] and [5:30 - 6].
+   */
+  @Override
+  public void deleteTimeRange(TimeRange timeRangeToDelete) {
+    long toDeleteRangeStart = timeRangeToDelete.startEpochSecond();
+    long toDeleteRangeEnd = timeRangeToDelete.endEpochSecond();
+
+    Map.Entry<Long, TimeRange> floorEntry = allTimeRanges.floorEntry(toDeleteRangeStart);
+    if (floorEntry != null && floorEntry.getValue().endEpochSecond() > toDeleteRangeStart) {
+      TimeRange floorRange = floorEntry.getValue();
+      allTimeRanges.remove(floorEntry.getKey());
+
+      // Construct one or two new time ranges after the deletion.
+      if (floorRange.startEpochSecond() < toDeleteRangeStart) {
+        allTimeRanges.put(
+            floorRange.startEpochSecond(),
+            TimeRange.fromEpochSeconds(floorRange.startEpochSecond(), toDeleteRangeStart));
+      }
+      if (floorRange.endEpochSecond() > toDeleteRangeEnd) {
+        allTimeRanges.put(
+            toDeleteRangeEnd,
+            TimeRange.fromEpochSeconds(toDeleteRangeEnd, floorRange.endEpochSecond()));
+        return;
+      }
+    }
+
+    // Ranges that start strictly inside the deleted range are removed. The last
+    // of them may extend past the deleted range, in which case its tail is kept.
+    NavigableMap<Long, TimeRange> coveredRanges =
+        allTimeRanges.subMap(toDeleteRangeStart, false, toDeleteRangeEnd, false);
+    if (coveredRanges.isEmpty()) {
+      return;
+    }
+    long lastCoveredRangeEnd = coveredRanges.lastEntry().getValue().endEpochSecond();
+    coveredRanges.clear();
+    if (lastCoveredRangeEnd > toDeleteRangeEnd) {
+      allTimeRanges.put(
+          toDeleteRangeEnd, TimeRange.fromEpochSeconds(toDeleteRangeEnd, lastCoveredRangeEnd));
+    }
+  }
+
+  /**
+   * Returns an iterator for the time ranges that end after {@code from}. Only the range starting at
+   * or before {@code from} can contain it, so the iteration starts there. See {@link
+   * TimeRangeGroup#iteratorFrom}.
+   */
+  @Override
+  public Iterator<TimeRange> iteratorFrom(Instant from) {
+    // Ranges start on whole seconds, so the floor of the instant's second is its floor too.
+    long fromEpochSecond = from.getEpochSecond();
+    Long floorKey = allTimeRanges.floorKey(fromEpochSecond);
+    NavigableMap<Long, TimeRange> tailRanges =
+        allTimeRanges.tailMap(floorKey == null ? fromEpochSecond : floorKey, true);
+    return new ClippedTimeRangeIterator(tailRanges.values().iterator(), from, Instant.MAX);
+  }
+
+  /** Returns an iterator for all time ranges, in ascending order of their start times. */
+  @Override
+  public Iterator<TimeRange> iterator() {
+    return allTimeRanges.values().iterator();
+  }
+}
@@ -0,0 +1,28 @@
+package com.google.sps.data;
+
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+
+/**
+ * This class models a scheduling algorithm that places each task in the longest free time range.
+ * What is left of a gap after a task is placed is then as long as possible, which avoids leaving
+ * behind slivers of free time that are too short to use.
+ */
+public class WorstFitScheduler extends GapSizeScheduler {
+
+  /** Returns the earliest of the longest free time ranges, if the task fits in it. */
+  @Override
+  Optional<TimeRange> chooseGap(
+      NavigableMap<Long, NavigableSet<TimeRange>> gapsBySize, long durationSeconds) {
+    if (gapsBySize.isEmpty() || gapsBySize.lastKey() < durationSeconds) {
+      return Optional.empty();
+    }
+    return Optional.of(gapsBySize.lastEntry().getValue().first());
+  }
+
+  /** Returns the scheduler's type, which is Worst Fit. */
+  public SchedulingAlgorithmType getSchedulingAlgorithmType() {
+    return SchedulingAlgorithmType.WORST_FIT;
+  }
+}
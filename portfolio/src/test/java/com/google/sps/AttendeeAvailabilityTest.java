@@ -0,0 +1,121 @@
+package com.google.sps.data;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class AttendeeAvailabilityTest {
+  // Attendee A is busy 9:30 - 10:30, B is busy 10:00 - 11:00 and 11:30 - 12:00,
+  // and C is busy 12:00 - 13:00. The work window is 9:00 - 14:00.
+  private static final List<List<CalendarEvent>> ATTENDEES_EVENTS =
+      ImmutableList.of(
+          ImmutableList.of(
+              new CalendarEvent("A", SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1030)),
+          ImmutableList.of(
+              new CalendarEvent("B1", SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1100),
+              new CalendarEvent("B2", SchedulerTestUtil.TIME_1130, SchedulerTestUtil.TIME_1200)),
+          ImmutableList.of(
+              new CalendarEvent("C", SchedulerTestUtil.TIME_1200, SchedulerTestUtil.TIME_1300)));
+
+  /** Tests the time ranges when every attendee is free. */
+  @Test
+  public void commonFreeTimeRanges() {
+    // Window: |----------------------------------|
+    // A:        |----|
+    // B:           |-----|   |--|
+    // C:                        |-----|
+    // Free:  |--|        |---|        |---------|
+    List<TimeRange> actual =
+        AttendeeAvailability.findCommonFreeTimeRanges(
+            ATTENDEES_EVENTS, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1400);
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_0930),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1130),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1300, SchedulerTestUtil.TIME_1400));
+    Assert.assertEquals(expected, actual);
+  }
+
+  /**
+   * Tests that with a quorum of two out of three attendees, only the times when two attendees are
+   * busy at once are left out, and touching ranges are merged.
+   */
+  @Test
+  public void quorumFreeTimeRanges() {
+    List<TimeRange> actual =
+        AttendeeAvailability.findQuorumFreeTimeRanges(
+            ATTENDEES_EVENTS, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1400, 2);
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1400));
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Tests that an attendee who is busy the whole window leaves no common free time. */
+  @Test
+  public void attendeeBusyAllDay() {
+    List<List<CalendarEvent>> attendeesEvents =
+        ImmutableList.of(
+            Collections.emptyList(),
+            ImmutableList.of(
+                new CalendarEvent(
+                    "All day", SchedulerTestUtil.BEGINNING_OF_DAY, SchedulerTestUtil.END_OF_DAY)));
+
+    List<TimeRange> actual =
+        AttendeeAvailability.findCommonFreeTimeRanges(
+            attendeesEvents, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1400);
+
+    Assert.assertEquals(Collections.emptyList(), actual);
+  }
+
+  /** Tests that with no attendees, the whole window is free for everyone. */
+  @Test
+  public void commonFreeTimeRangesWithNoAttendees() {
+    List<TimeRange> actual =
+        AttendeeAvailability.findCommonFreeTimeRanges(
+            Collections.emptyList(), SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1400);
+
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1400)),
+        actual);
+  }
+
+  /** Tests that a quorum of no attendees is rejected. */
+  @Test(expected = IllegalArgumentException.class)
+  public void quorumOfNoAttendees() {
+    AttendeeAvailability.quorumOf(0.8, 0);
+  }
+
+  /** Tests turning a share of the attendees into a quorum count. */
+  @Test
+  public void quorumOf() {
+    Assert.assertEquals(10, AttendeeAvailability.quorumOf(0.8, 12));
+    Assert.assertEquals(160, AttendeeAvailability.quorumOf(0.8, 200));
+    Assert.assertEquals(1, AttendeeAvailability.quorumOf(0, 5));
+  }
+
+  /** Tests that the quorum is not rounded up by floating-point error in the fraction. */
+  @Test
+  public void quorumOfExactFraction() {
+    Assert.assertEquals(7, AttendeeAvailability.quorumOf(0.07, 100));
+    Assert.assertEquals(29, AttendeeAvailability.quorumOf(0.29, 100));
+    Assert.assertEquals(8, AttendeeAvailability.quorumOf(0.071, 100));
+  }
+
+  /** Tests that a quorum larger than the number of attendees is rejected. */
+  @Test(expected = IllegalArgumentException.class)
+  public void quorumTooLarge() {
+    AttendeeAvailability.findQuorumFreeTimeRanges(
+        ATTENDEES_EVENTS, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1400, 4);
+  }
+}
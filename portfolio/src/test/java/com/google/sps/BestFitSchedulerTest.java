@@ -0,0 +1,101 @@
+package com.google.sps.data;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class BestFitSchedulerTest {
+
+  /** Makes sure we return an empty list in the case where no tasks are passed. */
+  @Test
+  public void noTasksScheduled() {
+    BestFitScheduler bestFitScheduler = new BestFitScheduler();
+
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1130));
+    Collection<Task> tasks = Arrays.asList();
+
+    Collection<ScheduledTask> actual =
+        bestFitScheduler.schedule(
+            events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700);
+    Collection<ScheduledTask> expected = Arrays.asList();
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Tests that each task goes into the shortest free time range it fits in. */
+  @Test
+  public void tasksPackedIntoShortestGaps() {
+    // Working hours:   |-----------------------------------------|
+    // Events:               |---|      |----|
+    // Scheduled tasks: |-B--|   |--A---|    |-C-|
+    BestFitScheduler bestFitScheduler = new BestFitScheduler();
+
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1000),
+            new CalendarEvent("Event 2", SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200));
+
+    Task task1 =
+        new Task(
+            "Task A", "A", SchedulerTestUtil.DURATION_60_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Task task2 =
+        new Task(
+            "Task B", "B", SchedulerTestUtil.DURATION_30_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Task task3 =
+        new Task(
+            "Task C", "C", SchedulerTestUtil.DURATION_20_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Collection<Task> tasks = Arrays.asList(task3, task2, task1);
+
+    Collection<ScheduledTask> actual =
+        bestFitScheduler.schedule(
+            events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700);
+    Collection<ScheduledTask> expected =
+        Arrays.asList(
+            new ScheduledTask(
+                task2, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.completelyScheduled),
+            new ScheduledTask(
+                task1, SchedulerTestUtil.TIME_1000, SchedulerTestUtil.completelyScheduled),
+            new ScheduledTask(
+                task3, SchedulerTestUtil.TIME_1200, SchedulerTestUtil.completelyScheduled));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Tests that a task longer than every free time range is left out instead of being split. */
+  @Test
+  public void taskLongerThanEveryGapNotScheduled() {
+    // Working hours:   |-----------------------------|
+    // Events:               |---|     |--------------|
+    // Scheduled tasks: |-B--|
+    BestFitScheduler bestFitScheduler = new BestFitScheduler();
+
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1000),
+            new CalendarEvent("Event 2", SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1700));
+
+    Task task1 =
+        new Task(
+            "Task A", "A", SchedulerTestUtil.DURATION_45_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Task task2 =
+        new Task(
+            "Task B", "B", SchedulerTestUtil.DURATION_30_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Collection<Task> tasks = Arrays.asList(task1, task2);
+
+    Collection<ScheduledTask> actual =
+        bestFitScheduler.schedule(
+            events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700);
+    Collection<ScheduledTask> expected =
+        Arrays.asList(
+            new ScheduledTask(
+                task2, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.completelyScheduled));
+
+    Assert.assertEquals(expected, actual);
+  }
+}
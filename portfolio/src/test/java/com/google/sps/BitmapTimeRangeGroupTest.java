@@ -0,0 +1,156 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class BitmapTimeRangeGroupTest {
+  private static final Duration SLOT_DURATION = SchedulerTestUtil.DURATION_5_MINUTES;
+
+  private BitmapTimeRangeGroup timeRangeGroup;
+
+  @Before
+  public void setUp() {
+    timeRangeGroup =
+        new BitmapTimeRangeGroup(
+            SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_2000, SLOT_DURATION);
+  }
+
+  private List<TimeRange> getAllTimeRanges() {
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    timeRangeGroup.iterator().forEachRemaining(actual::add);
+    return actual;
+  }
+
+  /** The slot duration must be a positive number of seconds. */
+  @Test(expected = IllegalArgumentException.class)
+  public void zeroSlotDuration() {
+    new BitmapTimeRangeGroup(
+        SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700, Duration.ZERO);
+  }
+
+  /** Tests that overlapping and adjacent ranges come back as one range. */
+  @Test
+  public void addOverlappingAndAdjacentRanges() {
+    // Time Ranges: |---A---|
+    //                  |---B---|
+    //                          |---C---|     |--D--|
+    // Result:      |-------------------|     |--D--|
+    timeRangeGroup.addTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000));
+    timeRangeGroup.addTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1100));
+    timeRangeGroup.addTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200));
+    timeRangeGroup.addTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1400, SchedulerTestUtil.TIME_1500));
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1400, SchedulerTestUtil.TIME_1500));
+    Assert.assertEquals(expected, getAllTimeRanges());
+  }
+
+  /** Tests that only the slots completely inside an added range are set. */
+  @Test
+  public void addRangeNotOnSlotBoundaries() {
+    Instant start = SchedulerTestUtil.TIME_0900.plusSeconds(60);
+    Instant end = SchedulerTestUtil.TIME_1000.minusSeconds(60);
+    timeRangeGroup.addTimeRange(TimeRange.fromStartEnd(start, end));
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(
+                SchedulerTestUtil.TIME_0900.plus(SLOT_DURATION),
+                SchedulerTestUtil.TIME_1000.minus(SLOT_DURATION)));
+    Assert.assertEquals(expected, getAllTimeRanges());
+  }
+
+  /** Tests that ranges are clipped to the horizon. */
+  @Test
+  public void addRangeOutsideHorizon() {
+    timeRangeGroup.addTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0830, SchedulerTestUtil.TIME_0930));
+    timeRangeGroup.addTimeRange(
+        TimeRange.fromStartEnd(
+            SchedulerTestUtil.TIME_2000, SchedulerTestUtil.TIME_2000.plus(SLOT_DURATION)));
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_0930));
+    Assert.assertEquals(expected, getAllTimeRanges());
+  }
+
+  /** Tests that deleting clears every slot the deleted range touches. */
+  @Test
+  public void deleteRangeNotOnSlotBoundaries() {
+    // Time Ranges: |---------A---------|
+    // To delete:        |--B--|
+    // Result:      |---|       |-------|
+    timeRangeGroup.addTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200));
+    timeRangeGroup.deleteTimeRange(
+        TimeRange.fromStartEnd(
+            SchedulerTestUtil.TIME_1000.plusSeconds(60),
+            SchedulerTestUtil.TIME_1100.minusSeconds(60)));
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200));
+    Assert.assertEquals(expected, getAllTimeRanges());
+  }
+
+  /** Tests containment across several words of the bitmap. */
+  @Test
+  public void hasTimeRange() {
+    // 09:00 - 17:00 is 96 slots of 5 minutes, which spans two 64-bit words.
+    timeRangeGroup.addTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700));
+    timeRangeGroup.deleteTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1400, SchedulerTestUtil.TIME_1500));
+
+    Assert.assertTrue(
+        timeRangeGroup.hasTimeRange(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1400)));
+    Assert.assertTrue(
+        timeRangeGroup.hasTimeRange(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1400, SchedulerTestUtil.TIME_1400)));
+    Assert.assertFalse(
+        timeRangeGroup.hasTimeRange(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1300, SchedulerTestUtil.TIME_1600)));
+    Assert.assertFalse(
+        timeRangeGroup.hasTimeRange(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1600, SchedulerTestUtil.TIME_1800)));
+  }
+
+  /** Tests that iterating from an instant starts inside the run of slots that contains it. */
+  @Test
+  public void iteratorFrom() {
+    // Time Ranges: |---A---|     |--B--|
+    // From:            ^
+    // Results:         |-A-|     |--B--|
+    timeRangeGroup.addTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000));
+    timeRangeGroup.addTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200));
+
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    timeRangeGroup.iteratorFrom(SchedulerTestUtil.TIME_0920).forEachRemaining(actual::add);
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0920, SchedulerTestUtil.TIME_1000),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200));
+    Assert.assertEquals(expected, actual);
+  }
+}
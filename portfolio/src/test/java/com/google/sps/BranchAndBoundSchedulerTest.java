@@ -0,0 +1,236 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class BranchAndBoundSchedulerTest {
+
+  /**
+   * Tests that two tasks that fill a free time range are picked over one longer task of the same
+   * priority, which is what the greedy schedule would do.
+   */
+  @Test
+  public void beatsGreedySchedule() {
+    // Working hours:   |------------------------------|
+    // Events:                     |-------------------|
+    // Scheduled tasks: |--B--|--C--|
+    BranchAndBoundScheduler branchAndBoundScheduler = new BranchAndBoundScheduler();
+
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1700));
+
+    Task task1 =
+        new Task(
+            "Task A", "A", SchedulerTestUtil.DURATION_40_MINUTES, SchedulerTestUtil.PRIORITY_FIVE);
+    Task task2 =
+        new Task(
+            "Task B", "B", SchedulerTestUtil.DURATION_30_MINUTES, SchedulerTestUtil.PRIORITY_FIVE);
+    Task task3 =
+        new Task(
+            "Task C", "C", SchedulerTestUtil.DURATION_30_MINUTES, SchedulerTestUtil.PRIORITY_FIVE);
+    Collection<Task> tasks = Arrays.asList(task1, task2, task3);
+
+    Collection<ScheduledTask> actual =
+        branchAndBoundScheduler.schedule(
+            events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700);
+    Collection<ScheduledTask> expected =
+        Arrays.asList(
+            new ScheduledTask(
+                task2, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.completelyScheduled),
+            new ScheduledTask(
+                task3, SchedulerTestUtil.TIME_0930, SchedulerTestUtil.completelyScheduled));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Tests that a short task of high priority is picked over a long task of low priority. */
+  @Test
+  public void prefersPriorityWeightedTime() {
+    // Working hours:   |------------------------------|
+    // Events:                     |-------------------|
+    // Scheduled tasks: |--B--|
+    BranchAndBoundScheduler branchAndBoundScheduler = new BranchAndBoundScheduler();
+
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1700));
+
+    Task task1 =
+        new Task(
+            "Task A", "A", SchedulerTestUtil.DURATION_60_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Task task2 =
+        new Task(
+            "Task B", "B", SchedulerTestUtil.DURATION_45_MINUTES, SchedulerTestUtil.PRIORITY_THREE);
+    Collection<Task> tasks = Arrays.asList(task1, task2);
+
+    Collection<ScheduledTask> actual =
+        branchAndBoundScheduler.schedule(
+            events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700);
+    Collection<ScheduledTask> expected =
+        Arrays.asList(
+            new ScheduledTask(
+                task2, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.completelyScheduled));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /**
+   * Tests that a search with no time budget on a large backlog still returns a schedule, and that
+   * every task in it is inside the free time and overlaps no other task.
+   */
+  @Test
+  public void zeroBudgetReturnsValidSchedule() {
+    Random random = new Random(25);
+    Instant endTime = SchedulerTestUtil.BEGINNING_OF_DAY.plus(Duration.ofDays(3));
+    List<CalendarEvent> events = new ArrayList<CalendarEvent>();
+    for (int i = 0; i < 100; i++) {
+      Instant eventStart = SchedulerTestUtil.BEGINNING_OF_DAY.plusSeconds(random.nextInt(250000));
+      events.add(
+          new CalendarEvent(
+              "Event " + i, eventStart, eventStart.plusSeconds(60 * (1 + random.nextInt(60)))));
+    }
+    List<Task> tasks = new ArrayList<Task>();
+    for (int i = 0; i < 300; i++) {
+      tasks.add(
+          new Task(
+              "Task " + i,
+              "",
+              Duration.ofMinutes(1 + random.nextInt(120)),
+              new TaskPriority(1 + random.nextInt(5))));
+    }
+
+    BranchAndBoundScheduler branchAndBoundScheduler = new BranchAndBoundScheduler(Duration.ZERO);
+    Collection<ScheduledTask> actual =
+        branchAndBoundScheduler.schedule(
+            events, tasks, SchedulerTestUtil.BEGINNING_OF_DAY, endTime);
+
+    Assert.assertFalse(actual.isEmpty());
+    TimeRangeGroup freeTime =
+        new ArrayListTimeRangeGroup(
+            new CalendarEventsGroup(events, SchedulerTestUtil.BEGINNING_OF_DAY, endTime)
+                .getFreeTimeRanges());
+    for (ScheduledTask scheduledTask : actual) {
+      TimeRange taskTimeRange =
+          TimeRange.fromStartEnd(
+              scheduledTask.getStartTime(),
+              scheduledTask.getStartTime().plus(scheduledTask.getTask().getDuration()));
+      Assert.assertTrue(freeTime.hasTimeRange(taskTimeRange));
+      freeTime.deleteTimeRange(taskTimeRange);
+    }
+  }
+
+  /**
+   * Tests that a backlog far deeper than the call stack is searched without running out of stack,
+   * and that every task in the schedule is inside the free time and overlaps no other task.
+   */
+  @Test
+  public void largeBacklogReturnsValidSchedule() {
+    Random random = new Random(20000);
+    Instant endTime = SchedulerTestUtil.BEGINNING_OF_DAY.plus(Duration.ofDays(7));
+    List<Task> tasks = new ArrayList<Task>();
+    for (int i = 0; i < 20000; i++) {
+      tasks.add(
+          new Task(
+              "Task " + i,
+              "",
+              Duration.ofMinutes(1 + random.nextInt(90)),
+              new TaskPriority(1 + random.nextInt(5))));
+    }
+
+    BranchAndBoundScheduler branchAndBoundScheduler =
+        new BranchAndBoundScheduler(Duration.ofMillis(100));
+    Collection<ScheduledTask> actual =
+        branchAndBoundScheduler.schedule(
+            Collections.emptyList(), tasks, SchedulerTestUtil.BEGINNING_OF_DAY, endTime);
+
+    Assert.assertFalse(actual.isEmpty());
+    TimeRangeGroup freeTime =
+        new ArrayListTimeRangeGroup(
+            Arrays.asList(TimeRange.fromStartEnd(SchedulerTestUtil.BEGINNING_OF_DAY, endTime)));
+    for (ScheduledTask scheduledTask : actual) {
+      TimeRange taskTimeRange =
+          TimeRange.fromStartEnd(
+              scheduledTask.getStartTime(),
+              scheduledTask.getStartTime().plus(scheduledTask.getTask().getDuration()));
+      Assert.assertTrue(freeTime.hasTimeRange(taskTimeRange));
+      freeTime.deleteTimeRange(taskTimeRange);
+    }
+  }
+
+  /**
+   * Tests that the search does at least as well as every greedy algorithm that does not split tasks
+   * either.
+   */
+  @Test
+  public void atLeastAsGoodAsGreedyAlgorithms() {
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1000),
+            new CalendarEvent("Event 2", SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200),
+            new CalendarEvent("Event 3", SchedulerTestUtil.TIME_1400, SchedulerTestUtil.TIME_1700));
+    Collection<Task> tasks =
+        Arrays.asList(
+            new Task(
+                "Task A",
+                "A",
+                SchedulerTestUtil.DURATION_90_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE),
+            new Task(
+                "Task B",
+                "B",
+                SchedulerTestUtil.DURATION_45_MINUTES,
+                SchedulerTestUtil.PRIORITY_FIVE),
+            new Task(
+                "Task C",
+                "C",
+                SchedulerTestUtil.DURATION_30_MINUTES,
+                SchedulerTestUtil.PRIORITY_THREE),
+            new Task(
+                "Task D",
+                "D",
+                SchedulerTestUtil.DURATION_20_MINUTES,
+                SchedulerTestUtil.PRIORITY_TWO),
+            new Task(
+                "Task E",
+                "E",
+                SchedulerTestUtil.DURATION_40_MINUTES,
+                SchedulerTestUtil.PRIORITY_FOUR));
+
+    long branchAndBoundValue =
+        PortfolioScheduler.Score.of(
+                new BranchAndBoundScheduler()
+                    .schedule(
+                        events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700))
+            .getWeightedCompletedSeconds();
+
+    List<TaskScheduler> greedySchedulers =
+        Arrays.asList(
+            new HighestPriorityFirstScheduler(), new BestFitScheduler(), new WorstFitScheduler());
+    for (TaskScheduler greedyScheduler : greedySchedulers) {
+      long greedyValue =
+          PortfolioScheduler.Score.of(
+                  greedyScheduler.schedule(
+                      events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700))
+              .getWeightedCompletedSeconds();
+      Assert.assertTrue(branchAndBoundValue >= greedyValue);
+    }
+  }
+
+  /** Expect the constructor to throw an IllegalArgumentException for a negative time budget. */
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeTimeBudgetThrows() {
+    new BranchAndBoundScheduler(Duration.ofSeconds(-1));
+  }
+}
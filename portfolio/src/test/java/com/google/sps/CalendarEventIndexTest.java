@@ -0,0 +1,133 @@
+package com.google.sps.data;
+
+import com.google.common.collect.ImmutableList;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CalendarEventIndexTest {
+  // Events: |-----A-----|
+  //               |--B--|     |--C--|
+  //         |-D-|
+  private static final CalendarEvent EVENT_A =
+      new CalendarEvent("A", SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1100);
+  private static final CalendarEvent EVENT_B =
+      new CalendarEvent("B", SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1100);
+  private static final CalendarEvent EVENT_C =
+      new CalendarEvent("C", SchedulerTestUtil.TIME_1200, SchedulerTestUtil.TIME_1300);
+  private static final CalendarEvent EVENT_D =
+      new CalendarEvent("D", SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_0930);
+
+  private CalendarEventIndex index;
+
+  @Before
+  public void setUp() {
+    index = new CalendarEventIndex(ImmutableList.of(EVENT_C, EVENT_B, EVENT_A, EVENT_D));
+  }
+
+  /** Tests that the events are kept sorted by start time, then end time. */
+  @Test
+  public void eventsAreSorted() {
+    Assert.assertEquals(Arrays.asList(EVENT_D, EVENT_A, EVENT_B, EVENT_C), index.getEvents());
+    Assert.assertEquals(4, index.size());
+  }
+
+  /** Tests that only the events overlapping the window are returned. */
+  @Test
+  public void findOverlapping() {
+    Assert.assertEquals(
+        Arrays.asList(EVENT_A, EVENT_B),
+        index.findOverlapping(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1200));
+    Assert.assertEquals(
+        Arrays.asList(EVENT_D, EVENT_A),
+        index.findOverlapping(SchedulerTestUtil.TIME_0830, SchedulerTestUtil.TIME_0915));
+    Assert.assertEquals(
+        Collections.emptyList(),
+        index.findOverlapping(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200));
+  }
+
+  /** Tests that every double-booked pair is reported once. */
+  @Test
+  public void findConflicts() {
+    List<List<CalendarEvent>> actual = new ArrayList<List<CalendarEvent>>();
+    for (CalendarEventIndex.Conflict conflict : index.findConflicts()) {
+      actual.add(Arrays.asList(conflict.getFirst(), conflict.getSecond()));
+    }
+
+    Assert.assertEquals(
+        Arrays.asList(Arrays.asList(EVENT_D, EVENT_A), Arrays.asList(EVENT_A, EVENT_B)), actual);
+  }
+
+  /** Tests that removing takes away one copy of an event at a time. */
+  @Test
+  public void removeCopies() {
+    index.add(EVENT_B);
+
+    Assert.assertTrue(index.remove(EVENT_B));
+    Assert.assertEquals(Arrays.asList(EVENT_D, EVENT_A, EVENT_B, EVENT_C), index.getEvents());
+    Assert.assertTrue(index.remove(EVENT_B));
+    Assert.assertTrue(index.remove(EVENT_A));
+    Assert.assertFalse(index.remove(EVENT_A));
+    Assert.assertEquals(Arrays.asList(EVENT_D, EVENT_C), index.getEvents());
+  }
+
+  /**
+   * Tests that an index built from events sorted by start time only, with a copy of an event, is
+   * the same as one built by adding the events one by one.
+   */
+  @Test
+  public void fromSortedEvents() {
+    CalendarEventIndex sortedIndex =
+        CalendarEventIndex.fromSortedEvents(
+            ImmutableList.of(EVENT_A, EVENT_D, EVENT_B, EVENT_B, EVENT_C));
+
+    Assert.assertEquals(
+        Arrays.asList(EVENT_D, EVENT_A, EVENT_B, EVENT_B, EVENT_C), sortedIndex.getEvents());
+    Assert.assertEquals(
+        Arrays.asList(EVENT_A, EVENT_B, EVENT_B),
+        sortedIndex.findOverlapping(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1200));
+    Assert.assertTrue(sortedIndex.remove(EVENT_B));
+    Assert.assertTrue(sortedIndex.remove(EVENT_D));
+    Assert.assertEquals(Arrays.asList(EVENT_A, EVENT_B, EVENT_C), sortedIndex.getEvents());
+  }
+
+  /** Tests window queries against a scan of all events, on many random events. */
+  @Test
+  public void findOverlappingMatchesScan() {
+    Random random = new Random(17);
+    List<CalendarEvent> events = new ArrayList<CalendarEvent>();
+    CalendarEventIndex randomIndex = new CalendarEventIndex(Collections.emptyList());
+    for (int event = 0; event < 500; event++) {
+      Instant start = SchedulerTestUtil.BEGINNING_OF_DAY.plusSeconds(random.nextInt(80000));
+      CalendarEvent calendarEvent =
+          new CalendarEvent("event " + event, start, start.plusSeconds(random.nextInt(5000)));
+      events.add(calendarEvent);
+      randomIndex.add(calendarEvent);
+    }
+    for (int event = 0; event < 100; event++) {
+      randomIndex.remove(events.remove(random.nextInt(events.size())));
+    }
+
+    for (int query = 0; query < 50; query++) {
+      Instant from = SchedulerTestUtil.BEGINNING_OF_DAY.plusSeconds(random.nextInt(80000));
+      Instant to = from.plusSeconds(random.nextInt(10000));
+      List<CalendarEvent> expected = new ArrayList<CalendarEvent>();
+      for (CalendarEvent event : randomIndex.getEvents()) {
+        if (event.getStartTime().isBefore(to) && event.getEndTime().isAfter(from)) {
+          expected.add(event);
+        }
+      }
+      Assert.assertEquals(expected, randomIndex.findOverlapping(from, to));
+    }
+    Assert.assertEquals(400, randomIndex.size());
+  }
+}
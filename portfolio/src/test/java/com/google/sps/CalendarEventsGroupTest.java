@@ -1,13 +1,20 @@
 package com.google.sps;
 
 import com.google.common.collect.ImmutableList;
+import com.google.sps.data.ArrayListTimeRangeGroup;
 import com.google.sps.data.CalendarEvent;
 import com.google.sps.data.CalendarEventsGroup;
+import com.google.sps.data.FreeTimeDelta;
 import com.google.sps.data.TimeRange;
+import com.google.sps.data.TimeRangeGroup;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -281,4 +288,328 @@ public final class CalendarEventsGroupTest {
     List<TimeRange> actualFreeTimeRanges = eventGroup.getFreeTimeRanges();
     Assert.assertEquals(expectedFreeTimeRanges, actualFreeTimeRanges);
   }
+
+  /** Adding an event takes its time out of the free time ranges it overlaps. */
+  @Test
+  public void addNewEventUpdatesFreeTime() {
+    // Events:       |--One--|        |--Two--|
+    // Possible: |-------------------------------|
+    // Free:     |---|       |-|  |---|       |--|
+    Instant overallStartTime = Instant.now();
+    Instant overallEndTime = overallStartTime.plusSeconds(10000);
+
+    Instant eventOneStart = overallStartTime.plusSeconds(1000);
+    Instant eventOneEnd = eventOneStart.plusSeconds(2000);
+    Instant eventTwoStart = eventOneEnd.plusSeconds(3000);
+    Instant eventTwoEnd = eventTwoStart.plusSeconds(2000);
+    List<CalendarEvent> events =
+        ImmutableList.of(new CalendarEvent("event one", eventOneStart, eventOneEnd));
+    CalendarEventsGroup eventGroup =
+        new CalendarEventsGroup(events, overallStartTime, overallEndTime);
+
+    Instant newEventStart = eventOneEnd.plusSeconds(1000);
+    Instant newEventEnd = newEventStart.plusSeconds(1000);
+    eventGroup.addNewEvent(new CalendarEvent("event two", eventTwoStart, eventTwoEnd));
+    eventGroup.addNewEvent(new CalendarEvent("new event", newEventStart, newEventEnd));
+
+    List<TimeRange> expectedFreeTimeRanges =
+        Arrays.asList(
+            TimeRange.fromStartEnd(overallStartTime, eventOneStart),
+            TimeRange.fromStartEnd(eventOneEnd, newEventStart),
+            TimeRange.fromStartEnd(newEventEnd, eventTwoStart),
+            TimeRange.fromStartEnd(eventTwoEnd, overallEndTime));
+    Assert.assertEquals(expectedFreeTimeRanges, eventGroup.getFreeTimeRanges());
+  }
+
+  /**
+   * Removing an event only frees the time that no other event covers, and the freed time is merged
+   * with the free time ranges next to it.
+   */
+  @Test
+  public void removeEventFreesUncoveredTime() {
+    // Events:       |----A----|
+    //                    |----B----|
+    // Possible: |-------------------------|
+    // After removing A:
+    // Free:     |--------|         |------|
+    Instant overallStartTime = Instant.now();
+    Instant overallEndTime = overallStartTime.plusSeconds(10000);
+
+    Instant eventOneStart = overallStartTime.plusSeconds(1000);
+    Instant eventOneEnd = eventOneStart.plusSeconds(3000);
+    Instant eventTwoStart = eventOneStart.plusSeconds(2000);
+    Instant eventTwoEnd = eventTwoStart.plusSeconds(3000);
+    CalendarEvent eventOne = new CalendarEvent("event one", eventOneStart, eventOneEnd);
+    CalendarEvent eventTwo = new CalendarEvent("event two", eventTwoStart, eventTwoEnd);
+    CalendarEventsGroup eventGroup =
+        new CalendarEventsGroup(
+            ImmutableList.of(eventTwo, eventOne), overallStartTime, overallEndTime);
+
+    Assert.assertEquals(Arrays.asList(eventOne, eventTwo), eventGroup.getEvents());
+    Assert.assertTrue(eventGroup.removeEvent(eventOne));
+    Assert.assertFalse(eventGroup.removeEvent(eventOne));
+
+    List<TimeRange> expectedFreeTimeRanges =
+        Arrays.asList(
+            TimeRange.fromStartEnd(overallStartTime, eventTwoStart),
+            TimeRange.fromStartEnd(eventTwoEnd, overallEndTime));
+    Assert.assertEquals(expectedFreeTimeRanges, eventGroup.getFreeTimeRanges());
+    Assert.assertEquals(Arrays.asList(eventTwo), eventGroup.getEvents());
+
+    // Once every event is gone, all of the possible scheduling time is free again.
+    Assert.assertTrue(eventGroup.removeEvent(eventTwo));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(overallStartTime, overallEndTime)),
+        eventGroup.getFreeTimeRanges());
+  }
+
+  /** An event that was added twice still covers its time after one copy is removed. */
+  @Test
+  public void removeOneCopyOfDuplicateEvent() {
+    Instant overallStartTime = Instant.now();
+    Instant overallEndTime = overallStartTime.plusSeconds(10000);
+    Instant eventStart = overallStartTime.plusSeconds(1000);
+    Instant eventEnd = eventStart.plusSeconds(1000);
+    CalendarEvent event = new CalendarEvent("event", eventStart, eventEnd);
+    CalendarEventsGroup eventGroup =
+        new CalendarEventsGroup(ImmutableList.of(event, event), overallStartTime, overallEndTime);
+
+    Assert.assertTrue(eventGroup.removeEvent(event));
+
+    List<TimeRange> expectedFreeTimeRanges =
+        Arrays.asList(
+            TimeRange.fromStartEnd(overallStartTime, eventStart),
+            TimeRange.fromStartEnd(eventEnd, overallEndTime));
+    Assert.assertEquals(expectedFreeTimeRanges, eventGroup.getFreeTimeRanges());
+  }
+
+  /** Events that start after the possible scheduling hours end never create a backwards range. */
+  @Test
+  public void severalEventsAfterOverallEndTime() {
+    Instant overallStartTime = Instant.now();
+    Instant overallEndTime = overallStartTime.plusSeconds(10000);
+    Instant eventOneStart = overallEndTime.plusSeconds(1000);
+    Instant eventTwoStart = eventOneStart.plusSeconds(2000);
+    List<CalendarEvent> events =
+        ImmutableList.of(
+            new CalendarEvent("event one", eventOneStart, eventOneStart.plusSeconds(1000)),
+            new CalendarEvent("event two", eventTwoStart, eventTwoStart.plusSeconds(1000)));
+    CalendarEventsGroup eventGroup =
+        new CalendarEventsGroup(events, overallStartTime, overallEndTime);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(overallStartTime, overallEndTime)),
+        eventGroup.getFreeTimeRanges());
+  }
+
+  /** The free time iterator and spliterator yield the same ranges as getFreeTimeRanges. */
+  @Test
+  public void freeTimeRangesIteratorAndSpliterator() {
+    Instant overallStartTime = Instant.now();
+    Instant overallEndTime = overallStartTime.plusSeconds(10000);
+    Instant eventOneStart = overallStartTime.plusSeconds(1000);
+    Instant eventTwoStart = eventOneStart.plusSeconds(3000);
+    List<CalendarEvent> events =
+        ImmutableList.of(
+            new CalendarEvent("event one", eventOneStart, eventOneStart.plusSeconds(1000)),
+            new CalendarEvent("event two", eventTwoStart, eventTwoStart.plusSeconds(1000)));
+    CalendarEventsGroup eventGroup =
+        new CalendarEventsGroup(events, overallStartTime, overallEndTime);
+
+    Iterator<TimeRange> iterator = eventGroup.freeTimeRangesIterator();
+    Assert.assertEquals(TimeRange.fromStartEnd(overallStartTime, eventOneStart), iterator.next());
+
+    List<TimeRange> streamed =
+        StreamSupport.stream(eventGroup.freeTimeRangesSpliterator(), false)
+            .collect(Collectors.toList());
+    Assert.assertEquals(eventGroup.getFreeTimeRanges(), streamed);
+    Assert.assertEquals(3, streamed.size());
+  }
+
+  /** Sorted sources of events are merged into one group, as if all events were in one list. */
+  @Test
+  public void fromSortedEventSources() {
+    // Work:         |--A--|           |--C--|
+    // Personal:          |--B--|
+    // Team:                    (none)
+    // Possible: |-----------------------------|
+    // Free:     |---|          |------|     |-|
+    Instant overallStartTime = Instant.now();
+    Instant overallEndTime = overallStartTime.plusSeconds(10000);
+    Instant eventOneStart = overallStartTime.plusSeconds(1000);
+    Instant eventTwoStart = eventOneStart.plusSeconds(1000);
+    Instant eventTwoEnd = eventTwoStart.plusSeconds(2000);
+    Instant eventThreeStart = eventTwoEnd.plusSeconds(2000);
+    Instant eventThreeEnd = eventThreeStart.plusSeconds(2000);
+    CalendarEvent eventOne =
+        new CalendarEvent("event one", eventOneStart, eventOneStart.plusSeconds(2000));
+    CalendarEvent eventTwo = new CalendarEvent("event two", eventTwoStart, eventTwoEnd);
+    CalendarEvent eventThree = new CalendarEvent("event three", eventThreeStart, eventThreeEnd);
+
+    CalendarEventsGroup eventGroup =
+        CalendarEventsGroup.fromSortedEventSources(
+            ImmutableList.of(
+                ImmutableList.of(eventOne, eventThree),
+                ImmutableList.of(eventTwo),
+                ImmutableList.<CalendarEvent>of()),
+            overallStartTime,
+            overallEndTime);
+
+    List<TimeRange> expectedFreeTimeRanges =
+        Arrays.asList(
+            TimeRange.fromStartEnd(overallStartTime, eventOneStart),
+            TimeRange.fromStartEnd(eventTwoEnd, eventThreeStart),
+            TimeRange.fromStartEnd(eventThreeEnd, overallEndTime));
+    Assert.assertEquals(expectedFreeTimeRanges, eventGroup.getFreeTimeRanges());
+    Assert.assertEquals(Arrays.asList(eventOne, eventTwo, eventThree), eventGroup.getEvents());
+  }
+
+  /** A source whose events are not sorted by start time is rejected. */
+  @Test(expected = IllegalArgumentException.class)
+  public void fromUnsortedEventSource() {
+    Instant overallStartTime = Instant.now();
+    Instant overallEndTime = overallStartTime.plusSeconds(10000);
+    Instant eventStart = overallStartTime.plusSeconds(1000);
+    CalendarEvent earlyEvent = new CalendarEvent("early", eventStart, eventStart.plusSeconds(500));
+    CalendarEvent lateEvent =
+        new CalendarEvent("late", eventStart.plusSeconds(1000), eventStart.plusSeconds(1500));
+
+    CalendarEventsGroup.fromSortedEventSources(
+        ImmutableList.of(ImmutableList.of(lateEvent, earlyEvent)),
+        overallStartTime,
+        overallEndTime);
+  }
+
+  /**
+   * Applying a delta of events returns only the time that changed, and applying that to a copy of
+   * the old free time ranges gives the new free time ranges.
+   */
+  @Test
+  public void applyEventChangesReturnsFreeTimeDelta() {
+    // Before:   |--A--|       |--B--|
+    // After:               |-----B--|   |--C--|
+    // Possible: |----------------------------------|
+    Instant overallStartTime = Instant.now();
+    Instant overallEndTime = overallStartTime.plusSeconds(10000);
+    Instant eventOneStart = overallStartTime;
+    Instant eventOneEnd = eventOneStart.plusSeconds(1000);
+    Instant eventTwoStart = eventOneEnd.plusSeconds(2000);
+    Instant eventTwoEnd = eventTwoStart.plusSeconds(1000);
+    Instant eventThreeStart = eventTwoStart.minusSeconds(500);
+    Instant eventFourStart = eventTwoEnd.plusSeconds(2000);
+    Instant eventFourEnd = eventFourStart.plusSeconds(1000);
+    CalendarEvent eventOne = new CalendarEvent("event one", eventOneStart, eventOneEnd);
+    CalendarEvent eventTwo = new CalendarEvent("event two", eventTwoStart, eventTwoEnd);
+    CalendarEvent eventThree = new CalendarEvent("event three", eventThreeStart, eventTwoEnd);
+    CalendarEvent eventFour = new CalendarEvent("event four", eventFourStart, eventFourEnd);
+    CalendarEventsGroup eventGroup =
+        new CalendarEventsGroup(
+            ImmutableList.of(eventOne, eventTwo), overallStartTime, overallEndTime);
+    TimeRangeGroup freeTimeRangesCopy = new ArrayListTimeRangeGroup(eventGroup.getFreeTimeRanges());
+
+    FreeTimeDelta delta =
+        eventGroup.applyEventChanges(
+            ImmutableList.of(eventThree, eventFour), ImmutableList.of(eventOne));
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(eventOneStart, eventOneEnd)),
+        delta.getNewlyFreeTimeRanges());
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(eventThreeStart, eventTwoStart),
+            TimeRange.fromStartEnd(eventFourStart, eventFourEnd)),
+        delta.getNewlyBusyTimeRanges());
+
+    delta.applyTo(freeTimeRangesCopy);
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    freeTimeRangesCopy.forEach(actual::add);
+    Assert.assertEquals(eventGroup.getFreeTimeRanges(), actual);
+  }
+
+  /** Changes that only touch time other events already cover give an empty delta. */
+  @Test
+  public void applyEventChangesInsideBusyTime() {
+    Instant overallStartTime = Instant.now();
+    Instant overallEndTime = overallStartTime.plusSeconds(10000);
+    Instant eventStart = overallStartTime.plusSeconds(1000);
+    CalendarEvent longEvent =
+        new CalendarEvent("long event", eventStart, eventStart.plusSeconds(3000));
+    CalendarEvent shortEvent =
+        new CalendarEvent("short event", eventStart, eventStart.plusSeconds(1000));
+    CalendarEventsGroup eventGroup =
+        new CalendarEventsGroup(
+            ImmutableList.of(longEvent, shortEvent), overallStartTime, overallEndTime);
+
+    FreeTimeDelta delta =
+        eventGroup.applyEventChanges(ImmutableList.of(), ImmutableList.of(shortEvent));
+
+    Assert.assertTrue(delta.isEmpty());
+    Assert.assertEquals(Arrays.asList(longEvent), eventGroup.getEvents());
+  }
+
+  /** The parallel free time search gives the same free time ranges as a group. */
+  @Test
+  public void findFreeTimeRangesInParallelMatchesGroup() {
+    Instant overallStartTime = Instant.parse("2020-06-25T09:00:00Z");
+    Instant overallEndTime = overallStartTime.plusSeconds(100000);
+    Random random = new Random(19);
+    List<CalendarEvent> events = new ArrayList<CalendarEvent>();
+    for (int event = 0; event < 2000; event++) {
+      // Some events start before or end after the possible scheduling hours.
+      Instant start = overallStartTime.plusSeconds(random.nextInt(110000) - 5000);
+      events.add(
+          new CalendarEvent("event " + event, start, start.plusSeconds(random.nextInt(100))));
+    }
+
+    List<TimeRange> expected =
+        new CalendarEventsGroup(events, overallStartTime, overallEndTime).getFreeTimeRanges();
+    List<TimeRange> actual =
+        CalendarEventsGroup.findFreeTimeRangesInParallel(events, overallStartTime, overallEndTime);
+
+    Assert.assertFalse(expected.isEmpty());
+    Assert.assertEquals(expected, actual);
+  }
+
+  /**
+   * The free time ranges swept from the events of a group that was never changed are the same as
+   * the ones read from the coverage counts once the events have been looked up.
+   */
+  @Test
+  public void sweptFreeTimeRangesMatchCoverage() {
+    Instant overallStartTime = Instant.parse("2020-06-25T09:00:00Z");
+    Instant overallEndTime = overallStartTime.plusSeconds(100000);
+    Random random = new Random(12);
+    List<CalendarEvent> events = new ArrayList<CalendarEvent>();
+    for (int event = 0; event < 2000; event++) {
+      // Some events start before or end after the possible scheduling hours, and some
+      // have no duration.
+      Instant start = overallStartTime.plusSeconds(random.nextInt(110000) - 5000);
+      events.add(
+          new CalendarEvent("event " + event, start, start.plusSeconds(random.nextInt(100))));
+    }
+
+    List<TimeRange> swept =
+        new CalendarEventsGroup(events, overallStartTime, overallEndTime).getFreeTimeRanges();
+    CalendarEventsGroup indexedGroup =
+        new CalendarEventsGroup(events, overallStartTime, overallEndTime);
+    Assert.assertEquals(events.size(), indexedGroup.getEvents().size());
+    List<TimeRange> fromCoverage = indexedGroup.getFreeTimeRanges();
+
+    Assert.assertFalse(swept.isEmpty());
+    Assert.assertEquals(fromCoverage, swept);
+  }
+
+  /** With no events, all of the possible scheduling hours are free. */
+  @Test
+  public void findFreeTimeRangesInParallelWithoutEvents() {
+    Instant overallStartTime = Instant.parse("2020-06-25T09:00:00Z");
+    Instant overallEndTime = overallStartTime.plusSeconds(10000);
+
+    List<TimeRange> actual =
+        CalendarEventsGroup.findFreeTimeRangesInParallel(
+            ImmutableList.of(), overallStartTime, overallEndTime);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(overallStartTime, overallEndTime)), actual);
+  }
 }
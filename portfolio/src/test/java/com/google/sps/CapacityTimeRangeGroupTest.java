@@ -0,0 +1,177 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CapacityTimeRangeGroupTest {
+  private static final int CAPACITY = 2;
+
+  private CapacityTimeRangeGroup capacityGroup;
+
+  @Before
+  public void setUp() {
+    capacityGroup =
+        new CapacityTimeRangeGroup(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200)),
+            CAPACITY);
+  }
+
+  private List<TimeRange> getAllTimeRanges() {
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    capacityGroup.forEach(actual::add);
+    return actual;
+  }
+
+  /** Tests that a time is only full once it is booked as many times as the capacity. */
+  @Test
+  public void reserveUpToCapacity() {
+    // Available:  |-----------------------|
+    // Booking 1:       |-----A-----|
+    // Booking 2:             |-----B-----|
+    // Full:                  |--|
+    TimeRange bookingOne =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1100);
+    TimeRange bookingTwo =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1130);
+
+    Assert.assertTrue(capacityGroup.tryReserve(bookingOne));
+    Assert.assertTrue(capacityGroup.tryReserve(bookingTwo));
+
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1030),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200)),
+        getAllTimeRanges());
+    Assert.assertEquals(2, capacityGroup.getLoad(SchedulerTestUtil.TIME_1030));
+    Assert.assertEquals(1, capacityGroup.getLoad(SchedulerTestUtil.TIME_1100));
+    Assert.assertEquals(0, capacityGroup.getLoad(SchedulerTestUtil.TIME_1130));
+    Assert.assertFalse(capacityGroup.tryReserve(bookingOne));
+  }
+
+  /** Tests that time outside the available time ranges cannot be booked. */
+  @Test
+  public void cannotReserveOutsideAvailableTime() {
+    Assert.assertFalse(
+        capacityGroup.tryReserve(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1130, SchedulerTestUtil.TIME_1230)));
+    Assert.assertEquals(0, capacityGroup.getLoad(SchedulerTestUtil.TIME_1130));
+  }
+
+  /** Tests that releasing a booking gives the full time back. */
+  @Test
+  public void releaseGivesRoomBack() {
+    TimeRange booking =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1100);
+    capacityGroup.tryReserve(booking);
+    capacityGroup.tryReserve(booking);
+
+    capacityGroup.release(booking);
+
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200)),
+        getAllTimeRanges());
+    Assert.assertEquals(1, capacityGroup.getLoad(SchedulerTestUtil.TIME_1000));
+  }
+
+  /** Tests that releasing time that was never booked is rejected. */
+  @Test(expected = IllegalArgumentException.class)
+  public void releaseUnbookedTime() {
+    capacityGroup.tryReserve(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1100));
+    capacityGroup.release(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1130));
+  }
+
+  /** Tests that first fit skips only the time that is booked to capacity. */
+  @Test
+  public void reserveFirstFit() {
+    Optional<TimeRange> first =
+        capacityGroup.reserveFirstFit(
+            SchedulerTestUtil.DURATION_2_HOURS, SchedulerTestUtil.TIME_0900);
+    Optional<TimeRange> second =
+        capacityGroup.reserveFirstFit(
+            SchedulerTestUtil.DURATION_2_HOURS, SchedulerTestUtil.TIME_0900);
+    Optional<TimeRange> third =
+        capacityGroup.reserveFirstFit(
+            SchedulerTestUtil.DURATION_60_MINUTES, SchedulerTestUtil.TIME_0900);
+    Optional<TimeRange> fourth =
+        capacityGroup.reserveFirstFit(
+            SchedulerTestUtil.DURATION_60_MINUTES, SchedulerTestUtil.TIME_0900);
+
+    TimeRange morning =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1100);
+    Assert.assertEquals(Optional.of(morning), first);
+    Assert.assertEquals(Optional.of(morning), second);
+    Assert.assertEquals(
+        Optional.of(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200)),
+        third);
+    Assert.assertEquals(third, fourth);
+    Assert.assertEquals(Collections.emptyList(), getAllTimeRanges());
+  }
+
+  /** Tests that first fit reports no booking when the place it found cannot be booked. */
+  @Test
+  public void reserveFirstFitThatCannotBeBooked() {
+    CapacityTimeRangeGroup fullGroup =
+        new CapacityTimeRangeGroup(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200)),
+            2) {
+          @Override
+          public boolean tryReserve(TimeRange timeRange) {
+            return false;
+          }
+        };
+
+    Assert.assertEquals(
+        Optional.empty(),
+        fullGroup.reserveFirstFit(
+            SchedulerTestUtil.DURATION_60_MINUTES, SchedulerTestUtil.TIME_0900));
+    Assert.assertEquals(0, fullGroup.getLoad(SchedulerTestUtil.TIME_0900));
+  }
+
+  /** Tests that booking a time range with no duration takes no room and changes nothing. */
+  @Test
+  public void reserveEmptyTimeRange() {
+    TimeRange empty =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1000);
+
+    Assert.assertTrue(capacityGroup.tryReserve(empty));
+    Assert.assertEquals(0, capacityGroup.getLoad(SchedulerTestUtil.TIME_1000));
+    capacityGroup.release(empty);
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200)),
+        getAllTimeRanges());
+  }
+
+  /** Tests that first fit with no duration books an empty time range and changes nothing. */
+  @Test
+  public void reserveFirstFitWithNoDuration() {
+    Optional<TimeRange> reserved =
+        capacityGroup.reserveFirstFit(Duration.ZERO, SchedulerTestUtil.TIME_1000);
+
+    Assert.assertEquals(
+        Optional.of(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1000)),
+        reserved);
+    Assert.assertEquals(0, capacityGroup.getLoad(SchedulerTestUtil.TIME_1000));
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200)),
+        getAllTimeRanges());
+  }
+}
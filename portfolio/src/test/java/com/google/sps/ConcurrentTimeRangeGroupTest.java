@@ -0,0 +1,265 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ConcurrentTimeRangeGroupTest {
+  private static final int THREAD_COUNT = 8;
+
+  private ConcurrentTimeRangeGroup timeRangeGroup;
+
+  @Before
+  public void setUp() {
+    timeRangeGroup =
+        new ConcurrentTimeRangeGroup(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200)));
+  }
+
+  private List<TimeRange> getAllTimeRanges() {
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    timeRangeGroup.forEach(actual::add);
+    return actual;
+  }
+
+  /** Tests that a free range can be reserved once, and an overlapping range cannot. */
+  @Test
+  public void tryReserve() {
+    // Free:        |-----------A-----------|
+    // Reserved:         |--B--|
+    // Not free:            |--C--|
+    TimeRange timeRangeTwo =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1100);
+    TimeRange timeRangeThree =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1130);
+
+    Assert.assertTrue(timeRangeGroup.tryReserve(timeRangeTwo));
+    Assert.assertFalse(timeRangeGroup.tryReserve(timeRangeTwo));
+    Assert.assertFalse(timeRangeGroup.tryReserve(timeRangeThree));
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200));
+    Assert.assertEquals(expected, getAllTimeRanges());
+  }
+
+  /** Tests that reserving the first fit returns successive places. */
+  @Test
+  public void reserveFirstFit() {
+    Duration duration = SchedulerTestUtil.DURATION_90_MINUTES;
+
+    Optional<TimeRange> first =
+        timeRangeGroup.reserveFirstFit(duration, SchedulerTestUtil.TIME_0900);
+    Optional<TimeRange> second =
+        timeRangeGroup.reserveFirstFit(duration, SchedulerTestUtil.TIME_0900);
+    Optional<TimeRange> third =
+        timeRangeGroup.reserveFirstFit(duration, SchedulerTestUtil.TIME_0900);
+
+    Assert.assertEquals(
+        Optional.of(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1030)),
+        first);
+    Assert.assertEquals(
+        Optional.of(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1200)),
+        second);
+    Assert.assertEquals(Optional.empty(), third);
+    Assert.assertEquals(Collections.emptyList(), getAllTimeRanges());
+  }
+
+  /** Tests that a snapshot does not see later reservations. */
+  @Test
+  public void snapshotIsUnchangedByReservations() {
+    PersistentTimeRangeGroup snapshot = timeRangeGroup.snapshot();
+    timeRangeGroup.tryReserve(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200));
+
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    snapshot.forEach(actual::add);
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200)),
+        actual);
+    Assert.assertEquals(Collections.emptyList(), getAllTimeRanges());
+  }
+
+  /** Tests that a time range stored in pieces across window boundaries is read back whole. */
+  @Test
+  public void piecesAcrossWindowsAreJoined() {
+    // Windows:     |-----------|-----------|-----------|
+    // Free:        |-----------------A-----------------|
+    // Reserved:                      |--B--|
+    ConcurrentTimeRangeGroup hourlyGroup =
+        new ConcurrentTimeRangeGroup(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200)),
+            SchedulerTestUtil.DURATION_60_MINUTES);
+
+    Assert.assertTrue(
+        hourlyGroup.hasTimeRange(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1130)));
+    Assert.assertEquals(
+        Optional.of(SchedulerTestUtil.TIME_0930),
+        hourlyGroup.findFirstFit(SchedulerTestUtil.DURATION_2_HOURS, SchedulerTestUtil.TIME_0930));
+    Assert.assertTrue(
+        hourlyGroup.tryReserve(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1130)));
+
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    hourlyGroup.forEach(actual::add);
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1030),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1130, SchedulerTestUtil.TIME_1200));
+    Assert.assertEquals(expected, actual);
+  }
+
+  /**
+   * Tests that a reservation across windows that is not free in a later window leaves the earlier
+   * windows unchanged.
+   */
+  @Test
+  public void failedReservationAcrossWindowsChangesNothing() {
+    // Windows:     |-----------|-----------|-----------|
+    // Free:        |-----------------A-----------------|
+    // Reserved:                            |-B-|
+    // Not free:          |-----------C-----------|
+    ConcurrentTimeRangeGroup hourlyGroup =
+        new ConcurrentTimeRangeGroup(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200)),
+            SchedulerTestUtil.DURATION_60_MINUTES);
+
+    Assert.assertTrue(
+        hourlyGroup.tryReserve(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1115)));
+    Assert.assertFalse(
+        hourlyGroup.tryReserve(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1130)));
+    Assert.assertEquals(
+        Optional.of(SchedulerTestUtil.TIME_0900),
+        hourlyGroup.findFirstFit(SchedulerTestUtil.DURATION_2_HOURS, SchedulerTestUtil.TIME_0900));
+
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    hourlyGroup.forEach(actual::add);
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1100),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1115, SchedulerTestUtil.TIME_1200));
+    Assert.assertEquals(expected, actual);
+  }
+
+  /**
+   * Tests that when many threads try to reserve the same 5 minute slots at once, every slot is
+   * reserved by exactly one thread.
+   */
+  @Test
+  public void concurrentReservationsNeverOverlap() throws Exception {
+    int slotCount =
+        (int)
+            (Duration.between(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200).getSeconds()
+                / SchedulerTestUtil.DURATION_5_MINUTES.getSeconds());
+    ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    CountDownLatch startLatch = new CountDownLatch(1);
+    List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+    for (int thread = 0; thread < THREAD_COUNT; thread++) {
+      results.add(
+          executor.submit(
+              () -> {
+                startLatch.await();
+                int reserved = 0;
+                for (int slot = 0; slot < slotCount; slot++) {
+                  Instant slotStart =
+                      SchedulerTestUtil.TIME_0900.plus(
+                          SchedulerTestUtil.DURATION_5_MINUTES.multipliedBy(slot));
+                  TimeRange slotRange =
+                      TimeRange.fromStartEnd(
+                          slotStart, slotStart.plus(SchedulerTestUtil.DURATION_5_MINUTES));
+                  if (timeRangeGroup.tryReserve(slotRange)) {
+                    reserved++;
+                  }
+                }
+                return reserved;
+              }));
+    }
+    startLatch.countDown();
+
+    int totalReserved = 0;
+    for (Future<Integer> result : results) {
+      totalReserved += result.get();
+    }
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+    Assert.assertEquals(slotCount, totalReserved);
+    Assert.assertEquals(Collections.emptyList(), getAllTimeRanges());
+  }
+
+  /**
+   * Tests that a reservation across a window boundary and a deletion across the same boundary, run
+   * at the same time, always end as if one of them ran first.
+   */
+  @Test
+  public void reservationAcrossWindowsIsAtomicAgainstDeletion() throws Exception {
+    // Windows:     |-----------|-----------|
+    // Free:              |-----A-----|
+    // Reserved:          |-----B-----|
+    // Deleted:              |-C-|
+    TimeRange reserved =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1030);
+    TimeRange deleted =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0950, SchedulerTestUtil.TIME_1020);
+    List<TimeRange> remainingAfterDeletion =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_0950),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1020, SchedulerTestUtil.TIME_1030));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    for (int round = 0; round < 2000; round++) {
+      ConcurrentTimeRangeGroup hourlyGroup =
+          new ConcurrentTimeRangeGroup(
+              Arrays.asList(reserved), SchedulerTestUtil.DURATION_60_MINUTES);
+      CountDownLatch startLatch = new CountDownLatch(1);
+      Future<Boolean> reservation =
+          executor.submit(
+              () -> {
+                startLatch.await();
+                return hourlyGroup.tryReserve(reserved);
+              });
+      Future<?> deletion =
+          executor.submit(
+              () -> {
+                startLatch.await();
+                hourlyGroup.deleteTimeRange(deleted);
+                return null;
+              });
+      startLatch.countDown();
+      deletion.get();
+
+      List<TimeRange> actual = new ArrayList<TimeRange>();
+      hourlyGroup.forEach(actual::add);
+      Assert.assertEquals(
+          reservation.get() ? Collections.emptyList() : remainingAfterDeletion, actual);
+    }
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+}
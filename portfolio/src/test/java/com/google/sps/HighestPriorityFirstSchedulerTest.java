@@ -1,7 +1,13 @@
 package com.google.sps.data;
 
+import com.google.common.collect.Lists;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -413,4 +419,205 @@ public final class HighestPriorityFirstSchedulerTest {
 
     Assert.assertEquals(expected, actual);
   }
+
+  /**
+   * Makes sure that when a task of one priority fits nowhere, tasks of lower priorities can still
+   * be scheduled in the free time before the last scheduled task.
+   */
+  @Test
+  public void unschedulableTaskDoesNotSkipEarlierFreeTime() {
+    HighestPriorityFirstScheduler highestPriorityFirstScheduler =
+        new HighestPriorityFirstScheduler();
+
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_0920, SchedulerTestUtil.TIME_1000),
+            new CalendarEvent("Event 2", SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1700));
+
+    Task task1 =
+        new Task(
+            "Task 1",
+            "First task",
+            SchedulerTestUtil.DURATION_30_MINUTES,
+            SchedulerTestUtil.PRIORITY_FIVE);
+    Task task2 =
+        new Task(
+            "Task 2",
+            "Second task",
+            SchedulerTestUtil.DURATION_60_MINUTES,
+            SchedulerTestUtil.PRIORITY_FOUR);
+    Task task3 =
+        new Task(
+            "Task 3",
+            "Third task",
+            SchedulerTestUtil.DURATION_15_MINUTES,
+            SchedulerTestUtil.PRIORITY_THREE);
+
+    Collection<Task> tasks = Arrays.asList(task1, task2, task3);
+    ScheduledTask scheduledTask1 =
+        new ScheduledTask(
+            task1, SchedulerTestUtil.TIME_1000, SchedulerTestUtil.completelyScheduled);
+    ScheduledTask scheduledTask3 =
+        new ScheduledTask(
+            task3, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.completelyScheduled);
+
+    Collection<ScheduledTask> actual =
+        highestPriorityFirstScheduler.schedule(
+            events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700);
+    Collection<ScheduledTask> expected = Arrays.asList(scheduledTask3, scheduledTask1);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /**
+   * Makes sure that when the last task of a priority fits nowhere after an earlier task of the same
+   * priority, the next priority searches from the beginning of the work hours again.
+   */
+  @Test
+  public void missedPriorityRestartsAtBeginningOfWorkHours() {
+    HighestPriorityFirstScheduler highestPriorityFirstScheduler =
+        new HighestPriorityFirstScheduler();
+
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_0920, SchedulerTestUtil.TIME_1000),
+            new CalendarEvent("Event 2", SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1700));
+
+    Task task1 =
+        new Task(
+            "Task 1",
+            "First task",
+            SchedulerTestUtil.DURATION_30_MINUTES,
+            SchedulerTestUtil.PRIORITY_FIVE);
+    Task task2 =
+        new Task(
+            "Task 2",
+            "Second task",
+            SchedulerTestUtil.DURATION_45_MINUTES,
+            SchedulerTestUtil.PRIORITY_FIVE);
+    Task task3 =
+        new Task(
+            "Task 3",
+            "Third task",
+            SchedulerTestUtil.DURATION_15_MINUTES,
+            SchedulerTestUtil.PRIORITY_THREE);
+
+    Collection<Task> tasks = Arrays.asList(task1, task2, task3);
+    ScheduledTask scheduledTask1 =
+        new ScheduledTask(
+            task1, SchedulerTestUtil.TIME_1000, SchedulerTestUtil.completelyScheduled);
+    ScheduledTask scheduledTask3 =
+        new ScheduledTask(
+            task3, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.completelyScheduled);
+
+    Collection<ScheduledTask> actual =
+        highestPriorityFirstScheduler.schedule(
+            events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700);
+    Collection<ScheduledTask> expected = Arrays.asList(scheduledTask3, scheduledTask1);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /**
+   * Schedules a large backlog and checks that every task is placed where the original scheduler,
+   * which walks a list of the free time ranges, places it.
+   */
+  @Test
+  public void largeBacklogMatchesListScheduler() {
+    Random random = new Random(21);
+    List<CalendarEvent> events = new ArrayList<CalendarEvent>();
+    for (int event = 0; event < 500; event++) {
+      Instant start =
+          SchedulerTestUtil.BEGINNING_OF_DAY.plus(
+              SchedulerTestUtil.DURATION_5_MINUTES.multipliedBy(random.nextInt(800)));
+      events.add(
+          new CalendarEvent(
+              "Event " + event,
+              start,
+              start.plus(SchedulerTestUtil.DURATION_5_MINUTES.multipliedBy(random.nextInt(6)))));
+    }
+    List<Task> tasks = new ArrayList<Task>();
+    for (int task = 0; task < 2000; task++) {
+      tasks.add(
+          new Task(
+              "Task " + task,
+              "",
+              SchedulerTestUtil.DURATION_5_MINUTES.multipliedBy(1 + random.nextInt(4)),
+              new TaskPriority(1 + random.nextInt(5))));
+    }
+
+    Collection<ScheduledTask> expected =
+        scheduleByWalkingList(
+            events, tasks, SchedulerTestUtil.BEGINNING_OF_DAY, SchedulerTestUtil.THREE_DAYS_LATER);
+    Collection<ScheduledTask> actual =
+        new HighestPriorityFirstScheduler()
+            .schedule(
+                events,
+                tasks,
+                SchedulerTestUtil.BEGINNING_OF_DAY,
+                SchedulerTestUtil.THREE_DAYS_LATER);
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertFalse(actual.isEmpty());
+  }
+
+  /**
+   * The original highest priority first algorithm, which walks the list of free time ranges one
+   * range at a time, kept as a reference for the scheduler. It also starts over at the beginning of
+   * the free time ranges when a priority is dropped.
+   */
+  private static List<ScheduledTask> scheduleByWalkingList(
+      Collection<CalendarEvent> events,
+      Collection<Task> tasks,
+      Instant workHoursStartTime,
+      Instant workHoursEndTime) {
+    TaskQueue taskQueue =
+        new TaskQueue(new ArrayList<Task>(tasks), SchedulingAlgorithmType.HIGHEST_PRIORITY_FIRST);
+    TimeRangeGroup availableTimesGroup =
+        new ArrayListTimeRangeGroup(
+            new CalendarEventsGroup(
+                    new ArrayList<CalendarEvent>(events), workHoursStartTime, workHoursEndTime)
+                .getFreeTimeRanges());
+    List<TimeRange> availableTimes = Lists.newArrayList(availableTimesGroup);
+    List<ScheduledTask> scheduledTasks = new ArrayList<ScheduledTask>();
+    int availableTimesIndex = 0;
+    Instant currentScheduleTime = workHoursStartTime;
+
+    while (availableTimesIndex < availableTimes.size() && !taskQueue.isEmpty()) {
+      TimeRange currentAvailableTimeRange = availableTimes.get(availableTimesIndex);
+      Task task = taskQueue.peek();
+      int priority = task.getPriority().getPriority();
+
+      if (currentAvailableTimeRange.start().isAfter(currentScheduleTime)) {
+        currentScheduleTime = currentAvailableTimeRange.start();
+      }
+      Instant scheduledEnd = currentScheduleTime.plus(task.getDuration());
+
+      if (!scheduledEnd.isAfter(currentAvailableTimeRange.end())) {
+        scheduledTasks.add(
+            new ScheduledTask(task, currentScheduleTime, SchedulerTestUtil.completelyScheduled));
+        availableTimesGroup.deleteTimeRange(
+            TimeRange.fromStartEnd(currentScheduleTime, scheduledEnd));
+        currentScheduleTime = scheduledEnd;
+        taskQueue.remove();
+        if (!taskQueue.isEmpty() && taskQueue.peek().getPriority().getPriority() != priority) {
+          availableTimesIndex = 0;
+          currentScheduleTime = workHoursStartTime;
+          availableTimes = Lists.newArrayList(availableTimesGroup);
+        }
+      } else if (availableTimesIndex == availableTimes.size() - 1) {
+        while (!taskQueue.isEmpty() && taskQueue.peek().getPriority().getPriority() == priority) {
+          taskQueue.remove();
+        }
+        availableTimesIndex = 0;
+        currentScheduleTime = workHoursStartTime;
+        availableTimes = Lists.newArrayList(availableTimesGroup);
+      } else {
+        availableTimesIndex++;
+      }
+    }
+
+    scheduledTasks.sort(Comparator.comparing(ScheduledTask::getStartTime));
+    return scheduledTasks;
+  }
 }
@@ -467,4 +467,63 @@ public final class LongestTaskFirstSchedulerTest {
 
     Assert.assertEquals(actual, expected);
   }
+
+  /**
+   * Tests that a task split over several free time ranges is completely scheduled with numbered
+   * parts, and that the next task starts where the split task stopped.
+   */
+  @Test
+  public void testTaskSplitAcrossThreeFreeTimeRanges() {
+    // Working hours:   |-----------------------------------------|
+    // Events:               |---|     |---|
+    // Scheduled tasks: |-A1-|   |-A2-|    |-A3-|-B-|
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1000),
+            new CalendarEvent("Event 2", SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1100));
+
+    Task task1 =
+        new Task(
+            "Task A", "A", SchedulerTestUtil.DURATION_90_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Task task2 =
+        new Task(
+            "Task B", "B", SchedulerTestUtil.DURATION_20_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Collection<Task> tasks = Arrays.asList(task2, task1);
+
+    LongestTaskFirstScheduler longestTaskFirstScheduler = new LongestTaskFirstScheduler();
+    Collection<ScheduledTask> actual =
+        longestTaskFirstScheduler.schedule(
+            events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700);
+
+    Collection<ScheduledTask> expected =
+        Arrays.asList(
+            new ScheduledTask(
+                new Task(
+                    "Task A (Part 1)",
+                    "A",
+                    SchedulerTestUtil.DURATION_30_MINUTES,
+                    SchedulerTestUtil.PRIORITY_ONE),
+                SchedulerTestUtil.TIME_0900,
+                SchedulerTestUtil.completelyScheduled),
+            new ScheduledTask(
+                new Task(
+                    "Task A (Part 2)",
+                    "A",
+                    SchedulerTestUtil.DURATION_30_MINUTES,
+                    SchedulerTestUtil.PRIORITY_ONE),
+                SchedulerTestUtil.TIME_1000,
+                SchedulerTestUtil.completelyScheduled),
+            new ScheduledTask(
+                new Task(
+                    "Task A (Part 3)",
+                    "A",
+                    SchedulerTestUtil.DURATION_30_MINUTES,
+                    SchedulerTestUtil.PRIORITY_ONE),
+                SchedulerTestUtil.TIME_1100,
+                SchedulerTestUtil.completelyScheduled),
+            new ScheduledTask(
+                task2, SchedulerTestUtil.TIME_1130, SchedulerTestUtil.completelyScheduled));
+
+    Assert.assertEquals(actual, expected);
+  }
 }
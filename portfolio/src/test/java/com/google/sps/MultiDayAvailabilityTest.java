@@ -0,0 +1,100 @@
+package com.google.sps.data;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class MultiDayAvailabilityTest {
+  // 2020-06-25 is a Thursday.
+  private static final LocalDate THURSDAY = LocalDate.parse("2020-06-25");
+  private static final LocalDate MONDAY = LocalDate.parse("2020-06-29");
+
+  // Works 9:00 - 12:00 on Thursdays and 13:00 - 17:00 on Fridays and Mondays.
+  private static final Map<DayOfWeek, MultiDayAvailability.WorkingHours> TEMPLATE =
+      ImmutableMap.of(
+          DayOfWeek.THURSDAY,
+          new MultiDayAvailability.WorkingHours(LocalTime.of(9, 0), LocalTime.of(12, 0)),
+          DayOfWeek.FRIDAY,
+          new MultiDayAvailability.WorkingHours(LocalTime.of(13, 0), LocalTime.of(17, 0)),
+          DayOfWeek.MONDAY,
+          new MultiDayAvailability.WorkingHours(LocalTime.of(13, 0), LocalTime.of(17, 0)));
+
+  private static List<TimeRange> getAllTimeRanges(TimeRangeGroup timeRangeGroup) {
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    timeRangeGroup.forEach(actual::add);
+    return actual;
+  }
+
+  /** Tests that weekend days are skipped and each working day gets its own hours. */
+  @Test
+  public void workingHoursFromTemplate() {
+    MultiDayAvailability availability = new MultiDayAvailability(TEMPLATE, ZoneOffset.UTC);
+
+    TimeRangeGroup actual =
+        availability.findFreeTimeRanges(Collections.emptyList(), THURSDAY, MONDAY);
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200),
+            TimeRange.fromStartEnd(
+                Instant.parse("2020-06-26T13:00:00Z"), Instant.parse("2020-06-26T17:00:00Z")),
+            TimeRange.fromStartEnd(
+                Instant.parse("2020-06-29T13:00:00Z"), Instant.parse("2020-06-29T17:00:00Z")));
+    Assert.assertEquals(expected, getAllTimeRanges(actual));
+  }
+
+  /** Tests that an event spanning several days takes time away from each of them. */
+  @Test
+  public void eventsAcrossDays() {
+    // Thursday: 9:00 |--A--|        12:00
+    // Friday:   13:00        |--B-----...
+    // Monday:   ...---B--|          17:00
+    List<CalendarEvent> events =
+        ImmutableList.of(
+            new CalendarEvent("A", SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000),
+            new CalendarEvent(
+                "B", Instant.parse("2020-06-26T15:00:00Z"), Instant.parse("2020-06-29T14:00:00Z")));
+    MultiDayAvailability availability =
+        new MultiDayAvailability(TEMPLATE, ZoneOffset.UTC, new ForkJoinPool(2));
+
+    TimeRangeGroup actual = availability.findFreeTimeRanges(events, THURSDAY, MONDAY);
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1200),
+            TimeRange.fromStartEnd(
+                Instant.parse("2020-06-26T13:00:00Z"), Instant.parse("2020-06-26T15:00:00Z")),
+            TimeRange.fromStartEnd(
+                Instant.parse("2020-06-29T14:00:00Z"), Instant.parse("2020-06-29T17:00:00Z")));
+    Assert.assertEquals(expected, getAllTimeRanges(actual));
+  }
+
+  /** Tests that working hours are read in the given time zone. */
+  @Test
+  public void workingHoursInTimeZone() {
+    MultiDayAvailability availability = new MultiDayAvailability(TEMPLATE, ZoneOffset.ofHours(-2));
+
+    TimeRangeGroup actual =
+        availability.findFreeTimeRanges(Collections.emptyList(), THURSDAY, THURSDAY);
+
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1400)),
+        getAllTimeRanges(actual));
+  }
+}
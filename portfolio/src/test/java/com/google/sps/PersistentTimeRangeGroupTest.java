@@ -0,0 +1,139 @@
+package com.google.sps.data;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class PersistentTimeRangeGroupTest {
+
+  private static List<TimeRange> getAllTimeRanges(Iterable<TimeRange> timeRangeGroup) {
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    timeRangeGroup.forEach(actual::add);
+    return actual;
+  }
+
+  /** Tests that building a group from unsorted, overlapping ranges merges them. */
+  @Test
+  public void buildFromUnsortedRanges() {
+    // Time Ranges:     |---B---|       |--D--|
+    //              |---A---|
+    //                      |--C--|
+    // Result:      |-------------|     |--D--|
+    PersistentTimeRangeGroup group =
+        PersistentTimeRangeGroup.of(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1030),
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1400, SchedulerTestUtil.TIME_1500),
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000),
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1100)));
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1100),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1400, SchedulerTestUtil.TIME_1500));
+    Assert.assertEquals(expected, getAllTimeRanges(group));
+  }
+
+  /** Tests that adding and deleting return new groups and leave the old ones unchanged. */
+  @Test
+  public void earlierVersionsAreUnchanged() {
+    // Original:    |-----------A-----------|
+    // Deleted:          |--B--|
+    // Added:                                   |--C--|
+    TimeRange timeRangeOne =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200);
+    TimeRange timeRangeTwo =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1100);
+    TimeRange timeRangeThree =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1400, SchedulerTestUtil.TIME_1500);
+
+    PersistentTimeRangeGroup original =
+        PersistentTimeRangeGroup.empty().withTimeRange(timeRangeOne);
+    PersistentTimeRangeGroup deleted = original.withoutTimeRange(timeRangeTwo);
+    PersistentTimeRangeGroup added = deleted.withTimeRange(timeRangeThree);
+
+    Assert.assertEquals(Arrays.asList(timeRangeOne), getAllTimeRanges(original));
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200)),
+        getAllTimeRanges(deleted));
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200),
+            timeRangeThree),
+        getAllTimeRanges(added));
+
+    Assert.assertTrue(original.hasTimeRange(timeRangeTwo));
+    Assert.assertFalse(deleted.hasTimeRange(timeRangeTwo));
+    Assert.assertTrue(PersistentTimeRangeGroup.empty().isEmpty());
+  }
+
+  /** Tests the first fit query on a persistent group. */
+  @Test
+  public void findFirstFit() {
+    // Time Ranges: |-A-|   |-----B-----|
+    // To fit:              |---C---|
+    PersistentTimeRangeGroup group =
+        PersistentTimeRangeGroup.of(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_0930),
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1200)));
+
+    Optional<Instant> actual =
+        group.findFirstFit(SchedulerTestUtil.DURATION_60_MINUTES, SchedulerTestUtil.TIME_0900);
+    Assert.assertEquals(Optional.of(SchedulerTestUtil.TIME_1000), actual);
+  }
+
+  /** Tests rolling a mutable tree group back to an earlier snapshot. */
+  @Test
+  public void snapshotAndRestore() {
+    // Time Ranges: |-----------A-----------|
+    // Deleted:     |--B--|           |--C--|
+    // Restored:    |-----------A-----------|
+    TimeRange timeRange =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200);
+    AugmentedTreeTimeRangeGroup group = new AugmentedTreeTimeRangeGroup(Arrays.asList(timeRange));
+
+    PersistentTimeRangeGroup snapshot = group.snapshot();
+    group.deleteTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000));
+    group.deleteTimeRange(
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200));
+
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1100)),
+        getAllTimeRanges(group));
+    Assert.assertEquals(Arrays.asList(timeRange), getAllTimeRanges(snapshot));
+
+    group.restore(snapshot);
+    Assert.assertEquals(Arrays.asList(timeRange), getAllTimeRanges(group));
+  }
+
+  /** Tests that a mutable group made from a snapshot does not change the snapshot. */
+  @Test
+  public void mutableGroupFromSnapshot() {
+    TimeRange timeRange =
+        TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200);
+    PersistentTimeRangeGroup snapshot = PersistentTimeRangeGroup.of(Arrays.asList(timeRange));
+
+    AugmentedTreeTimeRangeGroup group = snapshot.toMutableGroup();
+    group.deleteTimeRange(timeRange);
+
+    Assert.assertEquals(Collections.emptyList(), getAllTimeRanges(group));
+    Assert.assertEquals(Arrays.asList(timeRange), getAllTimeRanges(snapshot));
+    Assert.assertFalse(
+        snapshot.findFirstFit(Duration.ofHours(4), SchedulerTestUtil.TIME_0900).isPresent());
+  }
+}
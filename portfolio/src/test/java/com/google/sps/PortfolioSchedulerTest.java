@@ -0,0 +1,268 @@
+package com.google.sps.data;
+
+import com.google.common.base.Throwables;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class PortfolioSchedulerTest {
+  private static final Optional<SchedulingCompleteness> partiallyScheduled =
+      Optional.of(SchedulingCompleteness.PARTIALLY_SCHEDULED);
+
+  /** A scheduler that always returns the same schedule. */
+  private static final class FixedScheduler implements TaskScheduler {
+    private final Collection<ScheduledTask> schedule;
+
+    private FixedScheduler(ScheduledTask... scheduledTasks) {
+      this.schedule = Arrays.asList(scheduledTasks);
+    }
+
+    public Collection<ScheduledTask> schedule(
+        Collection<CalendarEvent> events,
+        Collection<Task> tasks,
+        Instant workHoursStartTime,
+        Instant workHoursEndTime) {
+      return schedule;
+    }
+
+    public SchedulingAlgorithmType getSchedulingAlgorithmType() {
+      return SchedulingAlgorithmType.PORTFOLIO;
+    }
+  }
+
+  /** A scheduler that always fails. */
+  private static final class FailingScheduler implements TaskScheduler {
+    private final RuntimeException failure;
+
+    private FailingScheduler(RuntimeException failure) {
+      this.failure = failure;
+    }
+
+    public Collection<ScheduledTask> schedule(
+        Collection<CalendarEvent> events,
+        Collection<Task> tasks,
+        Instant workHoursStartTime,
+        Instant workHoursEndTime) {
+      throw failure;
+    }
+
+    public SchedulingAlgorithmType getSchedulingAlgorithmType() {
+      return SchedulingAlgorithmType.PORTFOLIO;
+    }
+  }
+
+  private static Collection<ScheduledTask> scheduleWith(TaskScheduler... taskSchedulers) {
+    return new PortfolioScheduler(Arrays.asList(taskSchedulers), ForkJoinPool.commonPool())
+        .schedule(
+            Collections.emptyList(),
+            Collections.emptyList(),
+            SchedulerTestUtil.TIME_0900,
+            SchedulerTestUtil.TIME_1700);
+  }
+
+  private static ScheduledTask scheduledTask(
+      String name,
+      Duration duration,
+      TaskPriority priority,
+      Optional<SchedulingCompleteness> completeness) {
+    return new ScheduledTask(
+        new Task(name, "", duration, priority), SchedulerTestUtil.TIME_0900, completeness);
+  }
+
+  /** Tests that a short task of high priority is worth more than a long task of low priority. */
+  @Test
+  public void priorityWeightedCompletionWins() {
+    FixedScheduler longLowPriority =
+        new FixedScheduler(
+            scheduledTask(
+                "Task A",
+                SchedulerTestUtil.DURATION_60_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE,
+                SchedulerTestUtil.completelyScheduled));
+    FixedScheduler shortHighPriority =
+        new FixedScheduler(
+            scheduledTask(
+                "Task B",
+                SchedulerTestUtil.DURATION_20_MINUTES,
+                SchedulerTestUtil.PRIORITY_FIVE,
+                SchedulerTestUtil.completelyScheduled));
+
+    Collection<ScheduledTask> actual = scheduleWith(longLowPriority, shortHighPriority);
+
+    Assert.assertSame(shortHighPriority.schedule, actual);
+  }
+
+  /** Tests that partially scheduled tasks do not count towards the completion. */
+  @Test
+  public void partiallyScheduledTasksNotCompleted() {
+    FixedScheduler partial =
+        new FixedScheduler(
+            scheduledTask(
+                "Task A (Part 1)",
+                SchedulerTestUtil.DURATION_60_MINUTES,
+                SchedulerTestUtil.PRIORITY_FIVE,
+                partiallyScheduled));
+    FixedScheduler complete =
+        new FixedScheduler(
+            scheduledTask(
+                "Task B",
+                SchedulerTestUtil.DURATION_30_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE,
+                SchedulerTestUtil.completelyScheduled));
+
+    Collection<ScheduledTask> actual = scheduleWith(partial, complete);
+
+    Assert.assertSame(complete.schedule, actual);
+  }
+
+  /**
+   * Tests that equal completion is decided by the scheduled time, then by the number of segments,
+   * and then by the order of the schedulers.
+   */
+  @Test
+  public void tiesBrokenByScheduledTimeThenFragmentation() {
+    FixedScheduler lessTime =
+        new FixedScheduler(
+            scheduledTask(
+                "Task A",
+                SchedulerTestUtil.DURATION_30_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE,
+                SchedulerTestUtil.completelyScheduled));
+    FixedScheduler twoSegments =
+        new FixedScheduler(
+            scheduledTask(
+                "Task A",
+                SchedulerTestUtil.DURATION_30_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE,
+                SchedulerTestUtil.completelyScheduled),
+            scheduledTask(
+                "Task B (Part 1)",
+                SchedulerTestUtil.DURATION_15_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE,
+                partiallyScheduled),
+            scheduledTask(
+                "Task B (Part 2)",
+                SchedulerTestUtil.DURATION_15_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE,
+                partiallyScheduled));
+    FixedScheduler oneSegment =
+        new FixedScheduler(
+            scheduledTask(
+                "Task A",
+                SchedulerTestUtil.DURATION_30_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE,
+                SchedulerTestUtil.completelyScheduled),
+            scheduledTask(
+                "Task B (Part 1)",
+                SchedulerTestUtil.DURATION_30_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE,
+                partiallyScheduled));
+    FixedScheduler sameAsOneSegment =
+        new FixedScheduler(oneSegment.schedule.toArray(new ScheduledTask[0]));
+
+    Collection<ScheduledTask> actual =
+        scheduleWith(lessTime, twoSegments, oneSegment, sameAsOneSegment);
+
+    Assert.assertSame(oneSegment.schedule, actual);
+  }
+
+  /** Tests that the default portfolio does at least as well as every single algorithm. */
+  @Test
+  public void defaultPortfolioMatchesBestAlgorithm() {
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1000),
+            new CalendarEvent("Event 2", SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200),
+            new CalendarEvent("Event 3", SchedulerTestUtil.TIME_1400, SchedulerTestUtil.TIME_1700));
+    Collection<Task> tasks =
+        Arrays.asList(
+            new Task(
+                "Task A",
+                "A",
+                SchedulerTestUtil.DURATION_90_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE),
+            new Task(
+                "Task B",
+                "B",
+                SchedulerTestUtil.DURATION_45_MINUTES,
+                SchedulerTestUtil.PRIORITY_FIVE),
+            new Task(
+                "Task C",
+                "C",
+                SchedulerTestUtil.DURATION_30_MINUTES,
+                SchedulerTestUtil.PRIORITY_THREE),
+            new Task(
+                "Task D",
+                "D",
+                SchedulerTestUtil.DURATION_20_MINUTES,
+                SchedulerTestUtil.PRIORITY_TWO));
+
+    PortfolioScheduler portfolioScheduler = new PortfolioScheduler();
+    PortfolioScheduler.Score portfolioScore =
+        PortfolioScheduler.Score.of(
+            portfolioScheduler.schedule(
+                events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700));
+
+    for (SchedulingAlgorithmType schedulingAlgorithmType : SchedulingAlgorithmType.values()) {
+      if (schedulingAlgorithmType == SchedulingAlgorithmType.PORTFOLIO) {
+        continue;
+      }
+      TaskScheduler taskScheduler =
+          SchedulingAlgorithmReference.getTaskSchedulerOptional(
+                  Optional.of(schedulingAlgorithmType))
+              .get();
+      PortfolioScheduler.Score score =
+          PortfolioScheduler.Score.of(
+              taskScheduler.schedule(
+                  events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700));
+      Assert.assertTrue(portfolioScore.compareTo(score) >= 0);
+    }
+  }
+
+  /** Tests that a failing scheduler is left out and the others still race. */
+  @Test
+  public void failingSchedulerIsIgnored() {
+    FixedScheduler complete =
+        new FixedScheduler(
+            scheduledTask(
+                "Task A",
+                SchedulerTestUtil.DURATION_30_MINUTES,
+                SchedulerTestUtil.PRIORITY_ONE,
+                SchedulerTestUtil.completelyScheduled));
+
+    Collection<ScheduledTask> actual =
+        scheduleWith(new FailingScheduler(new IllegalStateException("failed")), complete);
+
+    Assert.assertSame(complete.schedule, actual);
+  }
+
+  /** Expect an IllegalStateException, caused by the first failure, if every scheduler fails. */
+  @Test
+  public void everySchedulerFailingThrows() {
+    RuntimeException firstFailure = new IllegalStateException("first");
+    try {
+      scheduleWith(
+          new FailingScheduler(firstFailure),
+          new FailingScheduler(new IllegalArgumentException("second")));
+      Assert.fail("Expected an IllegalStateException");
+    } catch (IllegalStateException expected) {
+      // ForkJoinTask may wrap a failure from another thread in a copy of it.
+      Assert.assertSame(firstFailure, Throwables.getRootCause(expected));
+    }
+  }
+
+  /** Expect the constructor to throw an IllegalArgumentException if no schedulers are passed. */
+  @Test(expected = IllegalArgumentException.class)
+  public void noSchedulersThrows() {
+    new PortfolioScheduler(Collections.emptyList(), ForkJoinPool.commonPool());
+  }
+}
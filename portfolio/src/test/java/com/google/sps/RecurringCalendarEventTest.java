@@ -0,0 +1,146 @@
+package com.google.sps.data;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class RecurringCalendarEventTest {
+  private static final Instant QUARTER_START = Instant.parse("2020-06-01T09:00:00Z");
+  private static final Instant QUARTER_END = Instant.parse("2020-08-31T09:00:00Z");
+
+  /** Tests that only the instances inside the time range are made, and exceptions are skipped. */
+  @Test
+  public void dailyOccurrencesInsideRange() {
+    // A daily standup from 9:00 to 9:15 for a quarter, cancelled on 2020-06-26.
+    RecurringCalendarEvent standup =
+        new RecurringCalendarEvent(
+            "Standup",
+            QUARTER_START,
+            QUARTER_START.plus(SchedulerTestUtil.DURATION_15_MINUTES),
+            RecurringCalendarEvent.Frequency.DAILY,
+            QUARTER_END,
+            Arrays.asList(Instant.parse("2020-06-26T09:00:00Z")));
+
+    List<CalendarEvent> actual =
+        Lists.newArrayList(
+            standup.occurrencesBetween(
+                SchedulerTestUtil.BEGINNING_OF_DAY, SchedulerTestUtil.THREE_DAYS_LATER));
+
+    List<CalendarEvent> expected =
+        Arrays.asList(
+            new CalendarEvent("Standup", SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_0915),
+            new CalendarEvent(
+                "Standup",
+                Instant.parse("2020-06-27T09:00:00Z"),
+                Instant.parse("2020-06-27T09:15:00Z")));
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Tests that an instance that started before the time range but is still going is made. */
+  @Test
+  public void weeklyOccurrenceOverlappingRangeStart() {
+    RecurringCalendarEvent meeting =
+        new RecurringCalendarEvent(
+            "Weekly sync",
+            Instant.parse("2020-06-04T08:30:00Z"),
+            Instant.parse("2020-06-04T10:00:00Z"),
+            RecurringCalendarEvent.Frequency.WEEKLY,
+            Instant.MAX,
+            Collections.emptyList());
+
+    List<CalendarEvent> actual =
+        Lists.newArrayList(
+            meeting.occurrencesBetween(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200));
+
+    Assert.assertEquals(
+        Arrays.asList(
+            new CalendarEvent(
+                "Weekly sync", SchedulerTestUtil.TIME_0830, SchedulerTestUtil.TIME_1000)),
+        actual);
+  }
+
+  /** Tests that a monthly series on the 31st falls on the last day of shorter months. */
+  @Test
+  public void monthlyOccurrencesClampToEndOfMonth() {
+    RecurringCalendarEvent review =
+        new RecurringCalendarEvent(
+            "Review",
+            Instant.parse("2020-01-31T12:00:00Z"),
+            Instant.parse("2020-01-31T13:00:00Z"),
+            RecurringCalendarEvent.Frequency.MONTHLY,
+            Instant.parse("2020-12-31T23:59:59Z"),
+            Collections.emptyList());
+
+    List<Instant> actual =
+        Lists.transform(
+            Lists.newArrayList(
+                review.occurrencesBetween(
+                    Instant.parse("2020-02-15T00:00:00Z"), Instant.parse("2020-05-01T00:00:00Z"))),
+            CalendarEvent::getStartTime);
+
+    List<Instant> expected =
+        Arrays.asList(
+            Instant.parse("2020-02-29T12:00:00Z"),
+            Instant.parse("2020-03-31T12:00:00Z"),
+            Instant.parse("2020-04-30T12:00:00Z"));
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Tests that no instance starts after the end of the series. */
+  @Test
+  public void noOccurrencesAfterRecurrenceEnd() {
+    RecurringCalendarEvent standup =
+        new RecurringCalendarEvent(
+            "Standup",
+            QUARTER_START,
+            QUARTER_START.plus(SchedulerTestUtil.DURATION_15_MINUTES),
+            RecurringCalendarEvent.Frequency.DAILY,
+            QUARTER_END,
+            Collections.emptyList());
+
+    Assert.assertFalse(
+        standup
+            .occurrencesBetween(
+                QUARTER_END.plus(Duration.ofHours(1)), Instant.parse("2021-01-01T00:00:00Z"))
+            .hasNext());
+  }
+
+  /** Tests that CalendarEventsGroup expands recurring events inside its scheduling hours. */
+  @Test
+  public void calendarEventsGroupWithRecurringEvent() {
+    RecurringCalendarEvent standup =
+        new RecurringCalendarEvent(
+            "Standup",
+            QUARTER_START,
+            QUARTER_START.plus(SchedulerTestUtil.DURATION_15_MINUTES),
+            RecurringCalendarEvent.Frequency.DAILY,
+            QUARTER_END,
+            Collections.emptyList());
+    CalendarEvent lunch =
+        new CalendarEvent("Lunch", SchedulerTestUtil.TIME_1200, SchedulerTestUtil.TIME_1300);
+
+    CalendarEventsGroup eventGroup =
+        new CalendarEventsGroup(
+            ImmutableList.of(lunch),
+            ImmutableList.of(standup),
+            SchedulerTestUtil.TIME_0830,
+            SchedulerTestUtil.TIME_1400);
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0830, SchedulerTestUtil.TIME_0900),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0915, SchedulerTestUtil.TIME_1200),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1300, SchedulerTestUtil.TIME_1400));
+    Assert.assertEquals(expected, eventGroup.getFreeTimeRanges());
+    Assert.assertEquals(2, eventGroup.getEvents().size());
+  }
+}
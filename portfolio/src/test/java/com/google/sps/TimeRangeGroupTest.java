@@ -2,13 +2,16 @@ package com.google.sps.data;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -21,20 +24,28 @@ import org.junit.runners.Parameterized.Parameters;
 public class TimeRangeGroupTest {
   @Parameters
   public static List parameters() {
-    return Arrays.asList(ArrayListTimeRangeGroup.class, LinkedListTimeRangeGroup.class);
+    return Arrays.asList(
+        ArrayListTimeRangeGroup.class,
+        LinkedListTimeRangeGroup.class,
+        TreeMapTimeRangeGroup.class,
+        LongArrayTimeRangeGroup.class,
+        AugmentedTreeTimeRangeGroup.class,
+        ConcurrentTimeRangeGroup.class);
   }
 
+  // Calendar times are only precise to the second, which is also the precision
+  // kept by LongArrayTimeRangeGroup.
+  private static final Instant START_TIME = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
   @Parameter public Class timeRangeGroupClass;
-  private AbstractListTimeRangeGroup timeRangeGroup;
+  private TimeRangeGroup timeRangeGroup;
 
   @Before
   public void setUp()
       throws NoSuchMethodException, InvocationTargetException, InstantiationException,
           IllegalAccessException {
-    Constructor[] allConstructors = timeRangeGroupClass.getConstructors();
-    Class[] parametersOfConstructor = allConstructors[0].getParameterTypes();
-    Constructor constructor = timeRangeGroupClass.getConstructor(parametersOfConstructor);
-    timeRangeGroup = (AbstractListTimeRangeGroup) constructor.newInstance(Arrays.asList());
+    Constructor constructor = timeRangeGroupClass.getConstructor(Iterable.class);
+    timeRangeGroup = (TimeRangeGroup) constructor.newInstance(Arrays.asList());
   }
 
   /** Tests for the method that checks if a time range exists in the group. */
@@ -43,7 +54,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |--A----|   |---B---|
     // To check:      |-C-|   |---D---|   |--E--|
     // C exists; D and E both don't exist in the group
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -81,7 +92,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |-----A-----|
     //                |-----B-----|
     // Result:     |--------------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneStart.plusSeconds(500);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -92,7 +103,7 @@ public class TimeRangeGroupTest {
     Instant timeRangeNewEnd = timeRangeTwoEnd;
     TimeRange expected = TimeRange.fromStartEnd(timeRangeNewStart, timeRangeNewEnd);
 
-    TimeRange actual = timeRangeGroup.mergeTwoTimeRanges(timeRangeOne, timeRangeTwo);
+    TimeRange actual = AbstractListTimeRangeGroup.mergeTwoTimeRanges(timeRangeOne, timeRangeTwo);
     Assert.assertEquals(expected, actual);
   }
 
@@ -102,7 +113,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |-----A-----|
     //                         |-----B-----|
     // Result:     |-----------------------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd;
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -113,7 +124,7 @@ public class TimeRangeGroupTest {
     Instant timeRangeNewEnd = timeRangeTwoEnd;
     TimeRange expected = TimeRange.fromStartEnd(timeRangeNewStart, timeRangeNewEnd);
 
-    TimeRange actual = timeRangeGroup.mergeTwoTimeRanges(timeRangeOne, timeRangeTwo);
+    TimeRange actual = AbstractListTimeRangeGroup.mergeTwoTimeRanges(timeRangeOne, timeRangeTwo);
     Assert.assertEquals(expected, actual);
   }
 
@@ -122,7 +133,7 @@ public class TimeRangeGroupTest {
     // Time Ranges:  |-----A-----|                |----C----|
     // To add:                     |-----B-----|
     // Result:       |----A------| |-----B-----|  |----C----|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(3000);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -163,7 +174,7 @@ public class TimeRangeGroupTest {
     // To add:          |-----B-----|
     // Result:       |----A&B-------|  |----C----|
     // After sorting:|----C---|    |-----A&B-----|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(3000);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -204,7 +215,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |-----A-----|     |----C----|
     // To add:                            |-----B-----|
     // Result:      |-----------|     |---------------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(3000);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -245,7 +256,7 @@ public class TimeRangeGroupTest {
     // Time Ranges:      |-A-|
     // To add:       |-----B-----|
     // Result:       |-----------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneStart.minusSeconds(500);
     Instant timeRangeTwoEnd = timeRangeOneEnd.plusSeconds(500);
@@ -277,7 +288,7 @@ public class TimeRangeGroupTest {
     // Time Ranges:  |-----A-----|
     // To add:       |-----B-----|
     // Result:       |-----------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
 
     TimeRange timeRangeOne = TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneEnd);
@@ -307,7 +318,7 @@ public class TimeRangeGroupTest {
     // To add:          |--------B--------|
     // Result:          |-----------------|  |---------|
 
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(3000);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -341,7 +352,7 @@ public class TimeRangeGroupTest {
     // To add:          |---B-----|
     // Result:       |---------------|
 
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     TimeRange timeRangeOne = TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneEnd);
 
@@ -373,7 +384,7 @@ public class TimeRangeGroupTest {
     // To add:          |---B-----|
     // Result:       |---------------|      |---------|
 
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(3000);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -406,7 +417,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |-----A-----|     |----B----|    |----C----|
     // To add:         |-----D----------|
     // Result:     |---------------------------|     |---------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(3000);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -450,7 +461,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |-----A-----|     |----B----|   |------C-----|
     // To add:         |--------------D----------------|
     // Result:     |---------------------------------------------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(3000);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -494,7 +505,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |-----A-----|   |---B---|
     // To delete:     |--C--|
     // Results:     |-|     |---|   |-------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -535,7 +546,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |-----A-----|   |---B---|
     // To delete:          |-----C------|
     // Results:     |------|            |---|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -576,7 +587,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |-----A-----|   |---B---|  |---C---|
     // To delete:          |-----------D----------|
     // Results:     |------|                      |----|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -623,7 +634,7 @@ public class TimeRangeGroupTest {
     // Time Ranges:        |-----A-----|   |---B---|
     // To delete:   |-----C------|
     // Results:                  |------|  |-------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -663,7 +674,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |-----A-----|           |---B---|
     // To delete:                 |---C---|
     // Results:     |-----A-----|           |---B---|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(1000);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -698,7 +709,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |---A---|   |---B---|
     // To delete:   |---C---|
     // Results:                 |-------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -734,7 +745,7 @@ public class TimeRangeGroupTest {
     // Time Ranges: |---A---|    |---B---|
     // To delete:              |------C-----|
     // Results:     |-------|
-    Instant timeRangeOneStart = Instant.now();
+    Instant timeRangeOneStart = START_TIME;
     Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
     Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(1000);
     Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
@@ -764,4 +775,232 @@ public class TimeRangeGroupTest {
     Collections.sort(actual, TimeRange.SORT_BY_TIME_RANGE_DURATION_ASCENDING_THEN_START_TIME);
     Assert.assertEquals(expectedTimeRangesAfterDelete, actual);
   }
+
+  /** Tests for adding an unsorted batch of time ranges, some of which overlap. */
+  @Test
+  public void testAddAllUnsortedAndOverlapping() {
+    // Existing:    |---A---|
+    // To add:               |--B--|   |---C---|
+    //                            |--D--|           |--E--|
+    // Results:     |-------------------------|     |-----|
+    Instant timeRangeOneStart = START_TIME;
+    Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
+    timeRangeGroup.addTimeRange(TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneEnd));
+
+    TimeRange timeRangeTwo =
+        TimeRange.fromStartEnd(timeRangeOneEnd, timeRangeOneEnd.plusSeconds(500));
+    TimeRange timeRangeThree =
+        TimeRange.fromStartEnd(
+            timeRangeOneEnd.plusSeconds(1000), timeRangeOneEnd.plusSeconds(2000));
+    TimeRange timeRangeFour =
+        TimeRange.fromStartEnd(timeRangeOneEnd.plusSeconds(400), timeRangeOneEnd.plusSeconds(1200));
+    TimeRange timeRangeFive =
+        TimeRange.fromStartEnd(
+            timeRangeOneEnd.plusSeconds(3000), timeRangeOneEnd.plusSeconds(3500));
+
+    timeRangeGroup.addAll(
+        Arrays.asList(timeRangeFive, timeRangeThree, timeRangeTwo, timeRangeFour));
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneEnd.plusSeconds(2000)),
+            timeRangeFive);
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    timeRangeGroup.forEach(actual::add);
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Tests for deleting an unsorted batch of time ranges across several existing ranges. */
+  @Test
+  public void testDeleteAll() {
+    // Time Ranges: |-------A-------|   |-------B-------|
+    // To delete:      |-C-|     |----D----|     |-E-|
+    // Results:     |--|   |-----|         |-----|   |--|
+    Instant timeRangeOneStart = START_TIME;
+    Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
+    Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
+    Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
+
+    timeRangeGroup.addAll(
+        Arrays.asList(
+            TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneEnd),
+            TimeRange.fromStartEnd(timeRangeTwoStart, timeRangeTwoEnd)));
+
+    TimeRange timeRangeToDeleteOne =
+        TimeRange.fromStartEnd(
+            timeRangeOneStart.plusSeconds(100), timeRangeOneStart.plusSeconds(200));
+    TimeRange timeRangeToDeleteTwo =
+        TimeRange.fromStartEnd(
+            timeRangeOneEnd.minusSeconds(200), timeRangeTwoStart.plusSeconds(200));
+    TimeRange timeRangeToDeleteThree =
+        TimeRange.fromStartEnd(
+            timeRangeTwoEnd.minusSeconds(300), timeRangeTwoEnd.minusSeconds(100));
+
+    timeRangeGroup.deleteAll(
+        Arrays.asList(timeRangeToDeleteThree, timeRangeToDeleteOne, timeRangeToDeleteTwo));
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneStart.plusSeconds(100)),
+            TimeRange.fromStartEnd(
+                timeRangeOneStart.plusSeconds(200), timeRangeOneEnd.minusSeconds(200)),
+            TimeRange.fromStartEnd(
+                timeRangeTwoStart.plusSeconds(200), timeRangeTwoEnd.minusSeconds(300)),
+            TimeRange.fromStartEnd(timeRangeTwoEnd.minusSeconds(100), timeRangeTwoEnd));
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    timeRangeGroup.forEach(actual::add);
+    Assert.assertEquals(expected, actual);
+  }
+
+  /** Tests for iterating from an instant inside a time range. */
+  @Test
+  public void testIteratorFrom() {
+    // Time Ranges: |---A---|   |---B---|   |---C---|
+    // From:                       ^
+    // Results:                    |-B--|   |---C---|
+    Instant timeRangeOneStart = START_TIME;
+    Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
+    Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
+    Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
+    Instant timeRangeThreeStart = timeRangeTwoEnd.plusSeconds(500);
+    Instant timeRangeThreeEnd = timeRangeThreeStart.plusSeconds(1000);
+
+    TimeRange timeRangeThree = TimeRange.fromStartEnd(timeRangeThreeStart, timeRangeThreeEnd);
+    timeRangeGroup.addAll(
+        Arrays.asList(
+            TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneEnd),
+            TimeRange.fromStartEnd(timeRangeTwoStart, timeRangeTwoEnd),
+            timeRangeThree));
+
+    Instant from = timeRangeTwoStart.plusSeconds(300);
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(from, timeRangeTwoEnd), timeRangeThree);
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    timeRangeGroup.iteratorFrom(from).forEachRemaining(actual::add);
+    Assert.assertEquals(expected, actual);
+
+    // A time range that ends exactly at the starting instant is skipped.
+    List<TimeRange> actualFromEnd = new ArrayList<TimeRange>();
+    timeRangeGroup.iteratorFrom(timeRangeTwoEnd).forEachRemaining(actualFromEnd::add);
+    Assert.assertEquals(Arrays.asList(timeRangeThree), actualFromEnd);
+  }
+
+  /** Tests that a sub group shows and changes only the part of the group inside its window. */
+  @Test
+  public void testSubGroup() {
+    // Time Ranges: |---A---|   |---B---|   |---C---|
+    // Window:           |------------------|
+    // Results:          |--|   |---B---|
+    Instant timeRangeOneStart = START_TIME;
+    Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
+    Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
+    Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
+    Instant timeRangeThreeStart = timeRangeTwoEnd.plusSeconds(500);
+    Instant timeRangeThreeEnd = timeRangeThreeStart.plusSeconds(1000);
+
+    TimeRange timeRangeTwo = TimeRange.fromStartEnd(timeRangeTwoStart, timeRangeTwoEnd);
+    timeRangeGroup.addAll(
+        Arrays.asList(
+            TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneEnd),
+            timeRangeTwo,
+            TimeRange.fromStartEnd(timeRangeThreeStart, timeRangeThreeEnd)));
+
+    Instant windowStart = timeRangeOneStart.plusSeconds(600);
+    TimeRangeGroup subGroup = timeRangeGroup.subGroup(windowStart, timeRangeThreeStart);
+
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(windowStart, timeRangeOneEnd), timeRangeTwo);
+    List<TimeRange> actual = new ArrayList<TimeRange>();
+    subGroup.forEach(actual::add);
+    Assert.assertEquals(expected, actual);
+
+    Assert.assertTrue(subGroup.hasTimeRange(timeRangeTwo));
+    Assert.assertFalse(
+        subGroup.hasTimeRange(TimeRange.fromStartEnd(timeRangeOneStart, windowStart)));
+    Assert.assertEquals(
+        Optional.of(timeRangeTwoStart),
+        subGroup.findFirstFit(Duration.ofSeconds(500), timeRangeOneStart));
+    Assert.assertEquals(
+        Optional.empty(), subGroup.findFirstFit(Duration.ofSeconds(500), timeRangeTwoEnd));
+
+    // Deleting through the view only deletes the part inside the window.
+    subGroup.deleteTimeRange(TimeRange.fromStartEnd(timeRangeOneStart, timeRangeThreeEnd));
+    List<TimeRange> expectedAfterDelete =
+        Arrays.asList(
+            TimeRange.fromStartEnd(timeRangeOneStart, windowStart),
+            TimeRange.fromStartEnd(timeRangeThreeStart, timeRangeThreeEnd));
+    List<TimeRange> actualAfterDelete = new ArrayList<TimeRange>();
+    timeRangeGroup.forEach(actualAfterDelete::add);
+    Assert.assertEquals(expectedAfterDelete, actualAfterDelete);
+  }
+
+  /** Tests that a time range outside the window cannot be added through a sub group. */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSubGroupAddOutsideWindow() {
+    TimeRangeGroup subGroup = timeRangeGroup.subGroup(START_TIME, START_TIME.plusSeconds(1000));
+    subGroup.addTimeRange(TimeRange.fromStartEnd(START_TIME, START_TIME.plusSeconds(2000)));
+  }
+
+  /** Tests for finding the first fit in a later range when the earlier ones are too short. */
+  @Test
+  public void testFindFirstFitSkipsShortRanges() {
+    // Time Ranges: |-A-|   |---B---|   |-----C-----|
+    // To fit:                          |----D----|
+    Instant timeRangeOneStart = START_TIME;
+    Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(500);
+    Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
+    Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
+    Instant timeRangeThreeStart = timeRangeTwoEnd.plusSeconds(500);
+    Instant timeRangeThreeEnd = timeRangeThreeStart.plusSeconds(2000);
+
+    timeRangeGroup.addTimeRange(TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneEnd));
+    timeRangeGroup.addTimeRange(TimeRange.fromStartEnd(timeRangeTwoStart, timeRangeTwoEnd));
+    timeRangeGroup.addTimeRange(TimeRange.fromStartEnd(timeRangeThreeStart, timeRangeThreeEnd));
+
+    Optional<Instant> actual =
+        timeRangeGroup.findFirstFit(Duration.ofSeconds(1500), timeRangeOneStart);
+    Assert.assertEquals(Optional.of(timeRangeThreeStart), actual);
+  }
+
+  /** Tests for finding the first fit inside the range that contains the earliest allowed start. */
+  @Test
+  public void testFindFirstFitInsideRange() {
+    // Time Ranges: |-----A-----|   |-----B-----|
+    // Not before:     ^
+    // To fit:         |--C--|
+    Instant timeRangeOneStart = START_TIME;
+    Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(2000);
+    Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
+    Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(2000);
+
+    timeRangeGroup.addTimeRange(TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneEnd));
+    timeRangeGroup.addTimeRange(TimeRange.fromStartEnd(timeRangeTwoStart, timeRangeTwoEnd));
+
+    Instant notBefore = timeRangeOneStart.plusSeconds(500);
+    Optional<Instant> actual = timeRangeGroup.findFirstFit(Duration.ofSeconds(1500), notBefore);
+    Assert.assertEquals(Optional.of(notBefore), actual);
+
+    // Once the remaining part of A is too short, the fit moves to B.
+    Optional<Instant> actualLonger =
+        timeRangeGroup.findFirstFit(Duration.ofSeconds(1600), notBefore);
+    Assert.assertEquals(Optional.of(timeRangeTwoStart), actualLonger);
+  }
+
+  /** Tests that nothing is found when no range is long enough. */
+  @Test
+  public void testFindFirstFitNoFit() {
+    // Time Ranges: |---A---|   |---B---|
+    // To fit:      |------C------|
+    Instant timeRangeOneStart = START_TIME;
+    Instant timeRangeOneEnd = timeRangeOneStart.plusSeconds(1000);
+    Instant timeRangeTwoStart = timeRangeOneEnd.plusSeconds(500);
+    Instant timeRangeTwoEnd = timeRangeTwoStart.plusSeconds(1000);
+
+    timeRangeGroup.addTimeRange(TimeRange.fromStartEnd(timeRangeOneStart, timeRangeOneEnd));
+    timeRangeGroup.addTimeRange(TimeRange.fromStartEnd(timeRangeTwoStart, timeRangeTwoEnd));
+
+    Optional<Instant> actual =
+        timeRangeGroup.findFirstFit(Duration.ofSeconds(2000), timeRangeOneStart);
+    Assert.assertEquals(Optional.empty(), actual);
+  }
 }
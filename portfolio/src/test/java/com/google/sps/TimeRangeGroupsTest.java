@@ -0,0 +1,102 @@
+package com.google.sps.data;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class TimeRangeGroupsTest {
+  private TimeRangeGroup groupA;
+  private TimeRangeGroup groupB;
+
+  @Before
+  public void setUp() {
+    // Group A: |-----A1-----|     |--A2--|
+    // Group B:      |--B1--|   |-----B2-----|   |-B3-|
+    //          9   9:30   10:30 11 11:20 12  12:30 13
+    groupA =
+        new ArrayListTimeRangeGroup(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000),
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200)));
+    groupB =
+        new TreeMapTimeRangeGroup(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1000),
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1130),
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1230, SchedulerTestUtil.TIME_1300)));
+  }
+
+  @Test
+  public void union() {
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1000),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1030, SchedulerTestUtil.TIME_1200),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1230, SchedulerTestUtil.TIME_1300));
+    Assert.assertEquals(expected, TimeRangeGroups.union(groupA, groupB));
+  }
+
+  @Test
+  public void intersect() {
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1000),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1130));
+    Assert.assertEquals(expected, TimeRangeGroups.intersect(groupA, groupB));
+  }
+
+  @Test
+  public void subtract() {
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_0930),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1130, SchedulerTestUtil.TIME_1200));
+    Assert.assertEquals(expected, TimeRangeGroups.subtract(groupA, groupB));
+  }
+
+  /** Tests that time ranges touching at one instant have nothing in common. */
+  @Test
+  public void intersectTouchingRanges() {
+    TimeRangeGroup groupC =
+        new ArrayListTimeRangeGroup(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1100)));
+    Assert.assertEquals(Collections.emptyList(), TimeRangeGroups.intersect(groupA, groupC));
+  }
+
+  /** Tests the n-way intersection of three calendars, one of which is free all morning. */
+  @Test
+  public void intersectAll() {
+    TimeRangeGroup groupC =
+        new LongArrayTimeRangeGroup(
+            Arrays.asList(
+                TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1115)));
+
+    List<TimeRange> expected =
+        Arrays.asList(
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1000),
+            TimeRange.fromStartEnd(SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1115));
+    Assert.assertEquals(
+        expected, TimeRangeGroups.intersectAll(Arrays.asList(groupA, groupB, groupC)));
+  }
+
+  /** Tests that an empty group makes the n-way intersection empty. */
+  @Test
+  public void intersectAllWithEmptyGroup() {
+    TimeRangeGroup emptyGroup = new ArrayListTimeRangeGroup(Collections.emptyList());
+    Assert.assertEquals(
+        Collections.emptyList(),
+        TimeRangeGroups.intersectAll(Arrays.asList(groupA, emptyGroup, groupB)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void intersectAllNoGroups() {
+    TimeRangeGroups.intersectAll(Collections.<TimeRangeGroup>emptyList());
+  }
+}
@@ -2,6 +2,9 @@ package com.google.sps.data;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -55,6 +58,29 @@ public final class TimeRangeTest {
     Assert.assertFalse(timeRange.equals(calendarEvent));
   }
 
+  /** Makes sure that equal TimeRange's have the same hash code, so they work as hash keys. */
+  @Test
+  public void testHashCode() {
+    TimeRange timeRangeOne = TimeRange.fromStartEnd(TIME_0900, TIME_0930);
+    TimeRange timeRangeTwo =
+        TimeRange.fromEpochSeconds(TIME_0900.getEpochSecond(), TIME_0930.getEpochSecond());
+    Assert.assertEquals(timeRangeOne.hashCode(), timeRangeTwo.hashCode());
+
+    Set<TimeRange> timeRanges = new HashSet<TimeRange>(Arrays.asList(timeRangeOne));
+    Assert.assertTrue(timeRanges.contains(timeRangeTwo));
+  }
+
+  /** Makes sure that the sub-second part of the start and end is dropped. */
+  @Test
+  public void testSecondPrecision() {
+    TimeRange timeRange =
+        TimeRange.fromStartEnd(TIME_0900.plusMillis(400), TIME_0930.plusMillis(900));
+    Assert.assertEquals(TIME_0900, timeRange.start());
+    Assert.assertEquals(TIME_0930, timeRange.end());
+    Assert.assertEquals(Duration.ofMinutes(30), timeRange.duration());
+    Assert.assertEquals(TimeRange.fromStartEnd(TIME_0900, TIME_0930), timeRange);
+  }
+
   /** Makes sure that toString() works properly. */
   @Test
   public void testToString() {
@@ -224,4 +250,10 @@ public final class TimeRangeTest {
     Assert.assertTrue(timeRangeOne.overlaps(timeRangeTwo));
     Assert.assertTrue(timeRangeTwo.overlaps(timeRangeOne));
   }
+
+  /** Tests that a time range cannot be created with its start after its end. */
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromEpochSecondsStartAfterEnd() {
+    TimeRange.fromEpochSeconds(1000, 999);
+  }
 }
@@ -0,0 +1,89 @@
+package com.google.sps.data;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class WorstFitSchedulerTest {
+
+  /** Tests that each task goes into the longest free time range, leaving the short ones free. */
+  @Test
+  public void tasksPlacedInLongestGap() {
+    // Working hours:   |-----------------------------------------|
+    // Events:               |---|      |----|
+    // Scheduled tasks:                      |--A---|-B--|-C-|
+    WorstFitScheduler worstFitScheduler = new WorstFitScheduler();
+
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_0930, SchedulerTestUtil.TIME_1000),
+            new CalendarEvent("Event 2", SchedulerTestUtil.TIME_1100, SchedulerTestUtil.TIME_1200));
+
+    Task task1 =
+        new Task(
+            "Task A", "A", SchedulerTestUtil.DURATION_60_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Task task2 =
+        new Task(
+            "Task B", "B", SchedulerTestUtil.DURATION_30_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Task task3 =
+        new Task(
+            "Task C", "C", SchedulerTestUtil.DURATION_20_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Collection<Task> tasks = Arrays.asList(task3, task2, task1);
+
+    Collection<ScheduledTask> actual =
+        worstFitScheduler.schedule(
+            events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1700);
+    Collection<ScheduledTask> expected =
+        Arrays.asList(
+            new ScheduledTask(
+                task1, SchedulerTestUtil.TIME_1200, SchedulerTestUtil.completelyScheduled),
+            new ScheduledTask(
+                task2, SchedulerTestUtil.TIME_1300, SchedulerTestUtil.completelyScheduled),
+            new ScheduledTask(
+                task3,
+                SchedulerTestUtil.TIME_1300.plus(SchedulerTestUtil.DURATION_30_MINUTES),
+                SchedulerTestUtil.completelyScheduled));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  /**
+   * Tests that a task moves to another free time range once its own has become shorter, and that
+   * the earlier of two equally long free time ranges is used first.
+   */
+  @Test
+  public void tasksSpreadOverEqualGaps() {
+    // Working hours:   |-----------------------|
+    // Events:                |-----|
+    // Scheduled tasks: |-A-|       |-B-|
+    WorstFitScheduler worstFitScheduler = new WorstFitScheduler();
+
+    Collection<CalendarEvent> events =
+        Arrays.asList(
+            new CalendarEvent("Event 1", SchedulerTestUtil.TIME_1000, SchedulerTestUtil.TIME_1100));
+
+    Task task1 =
+        new Task(
+            "Task A", "A", SchedulerTestUtil.DURATION_30_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Task task2 =
+        new Task(
+            "Task B", "B", SchedulerTestUtil.DURATION_30_MINUTES, SchedulerTestUtil.PRIORITY_ONE);
+    Collection<Task> tasks = Arrays.asList(task1, task2);
+
+    Collection<ScheduledTask> actual =
+        worstFitScheduler.schedule(
+            events, tasks, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.TIME_1200);
+    Collection<ScheduledTask> expected =
+        Arrays.asList(
+            new ScheduledTask(
+                task1, SchedulerTestUtil.TIME_0900, SchedulerTestUtil.completelyScheduled),
+            new ScheduledTask(
+                task2, SchedulerTestUtil.TIME_1100, SchedulerTestUtil.completelyScheduled));
+
+    Assert.assertEquals(expected, actual);
+  }
+}